@@ -0,0 +1,58 @@
+package com.ecommerce.cart.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+// Redis pub/sub channel over which instances tell each other to drop L1 entries.
+// Messages carry the sender's id so an instance ignores its own invalidations.
+@Slf4j
+public class CacheInvalidationBus {
+
+    public static final String CHANNEL = "cache:invalidation";
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    public CacheInvalidationBus(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public void publish(String cacheName, String key) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("instanceId", instanceId);
+        message.put("cacheName", cacheName);
+        message.put("key", key);
+
+        try {
+            redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(message));
+        } catch (Exception e) {
+            // Other instances fall back to their L1 TTL for this entry
+            log.warn("Error publishing cache invalidation for {}::{}", cacheName, key, e);
+        }
+    }
+
+    // Passes (cacheName, key) of a message from another instance to the handler; key is null for a clear
+    public void receive(Message message, BiConsumer<String, String> handler) {
+        try {
+            JsonNode invalidation = objectMapper.readTree(message.getBody());
+            if (instanceId.equals(invalidation.path("instanceId").asText())) {
+                return;
+            }
+            JsonNode key = invalidation.path("key");
+            handler.accept(invalidation.path("cacheName").asText(), key.isNull() || key.isMissingNode() ? null : key.asText());
+        } catch (IOException e) {
+            log.error("Error reading cache invalidation message", e);
+        }
+    }
+}
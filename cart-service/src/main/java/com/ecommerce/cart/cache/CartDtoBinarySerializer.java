@@ -0,0 +1,325 @@
+package com.ecommerce.cart.cache;
+
+import com.ecommerce.cart.dto.CartDto;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Compact tagged binary encoding of CartDto for the Redis cart cache.
+//
+// Layout: one format byte (PLAIN or DEFLATED, the latter followed by the varint plain length),
+// then fields as (tag << 3 | wire type) headers. Wire type 0 is a varint, 2 is a length-prefixed
+// block; a message ends with a zero header. Decimals are a zigzag scale plus unscaled
+// two's-complement bytes, timestamps a zigzag UTC epoch second plus nanos. Readers skip tags
+// they do not know, so fields can be added without breaking instances still on the old code.
+public class CartDtoBinarySerializer implements RedisSerializer<CartDto> {
+
+    private static final byte PLAIN = 0x01;
+    private static final byte DEFLATED = 0x02;
+
+    private static final int VARINT = 0;
+    private static final int BLOCK = 2;
+
+    private static final int CART_ID = 1;
+    private static final int CART_USER_ID = 2;
+    private static final int CART_TOTAL_AMOUNT = 3;
+    private static final int CART_CREATED_AT = 4;
+    private static final int CART_UPDATED_AT = 5;
+    private static final int CART_ITEM = 6;
+
+    private static final int ITEM_PRODUCT_ID = 1;
+    private static final int ITEM_PRODUCT_NAME = 2;
+    private static final int ITEM_PRICE = 3;
+    private static final int ITEM_QUANTITY = 4;
+    private static final int ITEM_SUBTOTAL = 5;
+
+    private final int compressionThreshold;
+
+    public CartDtoBinarySerializer(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(CartDto cart) throws SerializationException {
+        if (cart == null) {
+            return null;
+        }
+
+        Writer writer = new Writer();
+        writer.string(CART_ID, cart.getId());
+        writer.varlong(CART_USER_ID, cart.getUserId());
+        writer.decimal(CART_TOTAL_AMOUNT, cart.getTotalAmount());
+        writer.timestamp(CART_CREATED_AT, cart.getCreatedAt());
+        writer.timestamp(CART_UPDATED_AT, cart.getUpdatedAt());
+        if (cart.getItems() != null) {
+            for (CartDto.CartItemDto item : cart.getItems()) {
+                Writer itemWriter = new Writer();
+                itemWriter.varlong(ITEM_PRODUCT_ID, item.getProductId());
+                itemWriter.string(ITEM_PRODUCT_NAME, item.getProductName());
+                itemWriter.decimal(ITEM_PRICE, item.getPrice());
+                itemWriter.varlong(ITEM_QUANTITY, item.getQuantity() != null ? item.getQuantity().longValue() : null);
+                itemWriter.decimal(ITEM_SUBTOTAL, item.getSubtotal());
+                writer.block(CART_ITEM, itemWriter.finish());
+            }
+        }
+        byte[] plain = writer.finish();
+
+        if (compressionThreshold <= 0 || plain.length < compressionThreshold) {
+            return prepend(PLAIN, null, plain);
+        }
+        return prepend(DEFLATED, plain.length, deflate(plain));
+    }
+
+    @Override
+    public CartDto deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        Reader reader = new Reader(bytes, 1, bytes.length);
+        switch (bytes[0]) {
+            case PLAIN:
+                break;
+            case DEFLATED:
+                int plainLength = (int) reader.varint();
+                byte[] plain = inflate(bytes, reader.position, plainLength);
+                reader = new Reader(plain, 0, plain.length);
+                break;
+            default:
+                // Written by another codec (e.g. JSON before a codec switch): treat as a miss
+                return null;
+        }
+
+        CartDto cart = new CartDto();
+        List<CartDto.CartItemDto> items = new ArrayList<>();
+        int header;
+        while (reader.hasRemaining() && (header = (int) reader.varint()) != 0) {
+            switch (header >>> 3) {
+                case CART_ID -> cart.setId(reader.string());
+                case CART_USER_ID -> cart.setUserId(zigzagDecode(reader.varint()));
+                case CART_TOTAL_AMOUNT -> cart.setTotalAmount(reader.decimal());
+                case CART_CREATED_AT -> cart.setCreatedAt(reader.timestamp());
+                case CART_UPDATED_AT -> cart.setUpdatedAt(reader.timestamp());
+                case CART_ITEM -> items.add(readItem(reader.block()));
+                default -> reader.skip(header & 0x7);
+            }
+        }
+        cart.setItems(items);
+        return cart;
+    }
+
+    private static CartDto.CartItemDto readItem(Reader reader) {
+        CartDto.CartItemDto item = new CartDto.CartItemDto();
+        int header;
+        while (reader.hasRemaining() && (header = (int) reader.varint()) != 0) {
+            switch (header >>> 3) {
+                case ITEM_PRODUCT_ID -> item.setProductId(zigzagDecode(reader.varint()));
+                case ITEM_PRODUCT_NAME -> item.setProductName(reader.string());
+                case ITEM_PRICE -> item.setPrice(reader.decimal());
+                case ITEM_QUANTITY -> item.setQuantity((int) zigzagDecode(reader.varint()));
+                case ITEM_SUBTOTAL -> item.setSubtotal(reader.decimal());
+                default -> reader.skip(header & 0x7);
+            }
+        }
+        return item;
+    }
+
+    private static byte[] prepend(byte format, Integer plainLength, byte[] payload) {
+        Writer writer = new Writer();
+        writer.out.write(format);
+        if (plainLength != null) {
+            writer.rawVarint(plainLength);
+        }
+        writer.out.write(payload, 0, payload.length);
+        return writer.out.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] plain) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(plain);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(plain.length / 2);
+            byte[] buffer = new byte[1024];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes, int offset, int plainLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, offset, bytes.length - offset);
+            byte[] plain = new byte[plainLength];
+            int read = 0;
+            while (read < plainLength && !inflater.finished()) {
+                int n = inflater.inflate(plain, read, plainLength - read);
+                if (n == 0 && inflater.needsInput()) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != plainLength) {
+                throw new SerializationException("Truncated compressed cart");
+            }
+            return plain;
+        } catch (DataFormatException e) {
+            throw new SerializationException("Corrupt compressed cart", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static long zigzagEncode(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long zigzagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Writer {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+
+        void varlong(int tag, Long value) {
+            if (value != null) {
+                header(tag, VARINT);
+                rawVarint(zigzagEncode(value));
+            }
+        }
+
+        void string(int tag, String value) {
+            if (value != null) {
+                block(tag, value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        void decimal(int tag, BigDecimal value) {
+            if (value != null) {
+                Writer decimal = new Writer();
+                decimal.rawVarint(zigzagEncode(value.scale()));
+                byte[] unscaled = value.unscaledValue().toByteArray();
+                decimal.out.write(unscaled, 0, unscaled.length);
+                block(tag, decimal.out.toByteArray());
+            }
+        }
+
+        void timestamp(int tag, LocalDateTime value) {
+            if (value != null) {
+                Writer timestamp = new Writer();
+                timestamp.rawVarint(zigzagEncode(value.toEpochSecond(ZoneOffset.UTC)));
+                timestamp.rawVarint(value.getNano());
+                block(tag, timestamp.out.toByteArray());
+            }
+        }
+
+        void block(int tag, byte[] value) {
+            header(tag, BLOCK);
+            rawVarint(value.length);
+            out.write(value, 0, value.length);
+        }
+
+        byte[] finish() {
+            out.write(0);
+            return out.toByteArray();
+        }
+
+        private void header(int tag, int wireType) {
+            rawVarint(((long) tag << 3) | wireType);
+        }
+
+        private void rawVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] bytes;
+        private final int limit;
+        private int position;
+
+        Reader(byte[] bytes, int position, int limit) {
+            this.bytes = bytes;
+            this.position = position;
+            this.limit = limit;
+        }
+
+        boolean hasRemaining() {
+            return position < limit;
+        }
+
+        long varint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= limit) {
+                    throw new SerializationException("Truncated cached cart");
+                }
+                byte b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed varint in cached cart");
+        }
+
+        Reader block() {
+            int length = (int) varint();
+            if (length < 0 || position + length > limit) {
+                throw new SerializationException("Malformed block in cached cart");
+            }
+            Reader block = new Reader(bytes, position, position + length);
+            position += length;
+            return block;
+        }
+
+        String string() {
+            Reader block = block();
+            return new String(bytes, block.position, block.limit - block.position, StandardCharsets.UTF_8);
+        }
+
+        BigDecimal decimal() {
+            Reader block = block();
+            int scale = (int) zigzagDecode(block.varint());
+            byte[] unscaled = new byte[block.limit - block.position];
+            System.arraycopy(bytes, block.position, unscaled, 0, unscaled.length);
+            return new BigDecimal(new BigInteger(unscaled), scale);
+        }
+
+        LocalDateTime timestamp() {
+            Reader block = block();
+            long epochSecond = zigzagDecode(block.varint());
+            int nano = (int) block.varint();
+            return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+        }
+
+        void skip(int wireType) {
+            if (wireType == VARINT) {
+                varint();
+            } else if (wireType == BLOCK) {
+                block();
+            } else {
+                throw new SerializationException("Unknown wire type " + wireType + " in cached cart");
+            }
+        }
+    }
+}
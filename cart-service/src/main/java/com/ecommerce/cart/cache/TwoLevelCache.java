@@ -0,0 +1,182 @@
+package com.ecommerce.cart.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-process Caffeine L1 in front of a shared Redis L2. Writes go to both levels and tell the
+// other instances to drop their L1 copy; reads fill L1 from L2 on an L1 miss.
+// An invalidation leaves a stamped marker in L1 instead of just removing the entry, so a fill that
+// read L2 before the invalidation arrived is dropped rather than putting the old value back.
+public class TwoLevelCache implements org.springframework.cache.Cache {
+
+    private final String name;
+    private final Cache<String, Object> local;
+    private final org.springframework.cache.Cache remote;
+    private final CacheInvalidationBus invalidationBus;
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+
+    private final AtomicLong clock = new AtomicLong();
+    private volatile long clearedAt;
+
+    public TwoLevelCache(String name,
+                         Cache<String, Object> local,
+                         org.springframework.cache.Cache remote,
+                         CacheInvalidationBus invalidationBus,
+                         MeterRegistry meterRegistry) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.invalidationBus = invalidationBus;
+        this.localHits = counter(meterRegistry, "l1", "hit");
+        this.localMisses = counter(meterRegistry, "l1", "miss");
+        this.remoteHits = counter(meterRegistry, "l2", "hit");
+        this.remoteMisses = counter(meterRegistry, "l2", "miss");
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object value = localValue(key);
+        if (value != null) {
+            localHits.increment();
+            return new SimpleValueWrapper(value);
+        }
+        localMisses.increment();
+
+        long startedAt = clock.get();
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper == null || wrapper.get() == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        fill(key, wrapper.get(), startedAt);
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = localValue(key);
+        if (value != null) {
+            localHits.increment();
+            return (T) value;
+        }
+        localMisses.increment();
+
+        long startedAt = clock.get();
+        AtomicBoolean loaded = new AtomicBoolean();
+        T result = remote.get(key, () -> {
+            loaded.set(true);
+            return valueLoader.call();
+        });
+        (loaded.get() ? remoteMisses : remoteHits).increment();
+
+        if (result != null) {
+            fill(key, result, startedAt);
+        }
+        return result;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        local.put(localKey(key), value);
+        invalidationBus.publish(name, localKey(key));
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        markInvalidated(localKey(key));
+        invalidationBus.publish(name, localKey(key));
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        clearLocal();
+        invalidationBus.publish(name, null);
+    }
+
+    // Applies an invalidation published by another instance; a null key drops the whole L1
+    void invalidateLocal(String key) {
+        if (key == null) {
+            clearLocal();
+        } else {
+            markInvalidated(key);
+        }
+    }
+
+    private Object localValue(Object key) {
+        Object value = local.getIfPresent(localKey(key));
+        return value instanceof Invalidation ? null : value;
+    }
+
+    // Keeps whatever reached L1 after the fill started: a newer value from put() or a newer invalidation
+    private void fill(Object key, Object value, long startedAt) {
+        local.asMap().compute(localKey(key), (k, current) -> {
+            if (clearedAt > startedAt) {
+                return current;
+            }
+            if (current == null || current instanceof Invalidation invalidation && invalidation.stamp() <= startedAt) {
+                return value;
+            }
+            return current;
+        });
+    }
+
+    private void markInvalidated(String key) {
+        local.put(key, new Invalidation(clock.incrementAndGet()));
+    }
+
+    private void clearLocal() {
+        clearedAt = clock.incrementAndGet();
+        local.invalidateAll();
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private record Invalidation(long stamp) {
+    }
+
+    private Counter counter(MeterRegistry meterRegistry, String level, String result) {
+        return Counter.builder("cache.level.gets")
+                .tag("cache", name)
+                .tag("level", level)
+                .tag("result", result)
+                .description("Cache lookups per level of the two-level cache")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.cart.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private final CacheManager remoteCacheManager;
+    private final CacheInvalidationBus invalidationBus;
+    private final MeterRegistry meterRegistry;
+    private final long localMaximumSize;
+    private final Duration localExpireAfterWrite;
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager,
+                                CacheInvalidationBus invalidationBus,
+                                MeterRegistry meterRegistry,
+                                long localMaximumSize,
+                                Duration localExpireAfterWrite) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.invalidationBus = invalidationBus;
+        this.meterRegistry = meterRegistry;
+        this.localMaximumSize = localMaximumSize;
+        this.localExpireAfterWrite = localExpireAfterWrite;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache remote = remoteCacheManager.getCache(cacheName);
+            if (remote == null) {
+                return null;
+            }
+            return new TwoLevelCache(cacheName,
+                    Caffeine.newBuilder()
+                            .maximumSize(localMaximumSize)
+                            .expireAfterWrite(localExpireAfterWrite)
+                            .build(),
+                    remote, invalidationBus, meterRegistry);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        invalidationBus.receive(message, (cacheName, key) -> {
+            TwoLevelCache cache = caches.get(cacheName);
+            if (cache != null) {
+                cache.invalidateLocal(key);
+            }
+        });
+    }
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.cart.client;
+
+import com.ecommerce.cart.dto.ProductInfoDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductClient {
+
+    private final RestTemplate restTemplate;
+
+    @Value("${services.product-catalog.url:http://localhost:8082}")
+    private String productServiceUrl;
+
+    public Map<Long, ProductInfoDto> getProducts(Collection<? extends Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+
+        ProductInfoDto[] products = restTemplate.postForObject(
+                productServiceUrl + "/api/products/batch",
+                new LinkedHashSet<>(productIds),
+                ProductInfoDto[].class);
+
+        if (products == null) {
+            return Map.of();
+        }
+
+        log.debug("Resolved {} of {} products in one batch call", products.length, productIds.size());
+
+        return Arrays.stream(products)
+                .collect(Collectors.toMap(ProductInfoDto::getId, Function.identity()));
+    }
+}
@@ -1,24 +1,44 @@
 package com.ecommerce.cart.config;
 
+import com.ecommerce.cart.cache.CacheInvalidationBus;
+import com.ecommerce.cart.cache.CartDtoBinarySerializer;
+import com.ecommerce.cart.cache.TwoLevelCacheManager;
+import com.ecommerce.cart.dto.CartDto;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCache;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
 import java.util.HashMap;
@@ -44,11 +64,6 @@ public class CartConfig {
         return mapper;
     }
 
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    }
-
     // Kafka Configuration
     @Bean
     public ProducerFactory<String, String> producerFactory() {
@@ -64,6 +79,22 @@ public class CartConfig {
         return new KafkaTemplate<>(producerFactory());
     }
 
+    @Bean
+    public ConsumerFactory<String, String> consumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        return factory;
+    }
+
     // Redis Configuration
     @Bean
     public RedisConnectionFactory redisConnectionFactory() {
@@ -79,14 +110,68 @@ public class CartConfig {
         return template;
     }
 
+    // "binary" is the compact tagged format; "json" keeps the typed Jackson encoding
     @Bean
-    public RedisCacheManager cacheManager() {
+    public RedisSerializer<CartDto> cartCacheSerializer(@Value("${cart.cache.codec:binary}") String codec,
+                                                        @Value("${cart.cache.compression-threshold:512}") int compressionThreshold) {
+        if ("json".equals(codec)) {
+            return new Jackson2JsonRedisSerializer<>(objectMapper(), CartDto.class);
+        }
+        return new CartDtoBinarySerializer(compressionThreshold);
+    }
+
+    @Bean
+    public RedisCacheManager redisCacheManager(RedisSerializer<CartDto> cartCacheSerializer) {
         RedisCacheConfiguration cacheConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(30))
                 .disableCachingNullValues();
 
+        RedisCacheConfiguration cartsConfig = cacheConfig.serializeValuesWith(RedisSerializationContext.SerializationPair
+                .fromSerializer(cartCacheSerializer));
+
         return RedisCacheManager.builder(redisConnectionFactory())
                 .cacheDefaults(cacheConfig)
+                .withCacheConfiguration("carts", cartsConfig)
+                .enableStatistics()
                 .build();
     }
+
+    // Small per-instance L1 in front of Redis; writes on any instance drop the others' L1 entry
+    @Bean
+    @Primary
+    public TwoLevelCacheManager cacheManager(RedisCacheManager redisCacheManager,
+                                             CacheInvalidationBus cacheInvalidationBus,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${cart.l1-cache.maximum-size:10000}") long maximumSize,
+                                             @Value("${cart.l1-cache.expire-after-write:60s}") Duration expireAfterWrite) {
+        return new TwoLevelCacheManager(redisCacheManager, cacheInvalidationBus, meterRegistry, maximumSize, expireAfterWrite);
+    }
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(StringRedisTemplate stringRedisTemplate) {
+        return new CacheInvalidationBus(stringRedisTemplate, objectMapper());
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory());
+        container.addMessageListener(cacheManager, new ChannelTopic(CacheInvalidationBus.CHANNEL));
+        return container;
+    }
+
+    @Bean
+    public MeterBinder cartCacheHitRatio(RedisCacheManager redisCacheManager) {
+        return registry -> Gauge.builder("cache.hit.ratio", redisCacheManager, manager -> hitRatio(manager, "carts"))
+                .tag("cache", "carts")
+                .tag("level", "l2")
+                .description("Share of Redis reads (L1 misses) that hit since startup")
+                .register(registry);
+    }
+
+    private static double hitRatio(RedisCacheManager cacheManager, String cacheName) {
+        CacheStatistics statistics = ((RedisCache) cacheManager.getCache(cacheName)).getStatistics();
+        long lookups = statistics.getHits() + statistics.getMisses();
+        return lookups == 0 ? 0.0 : (double) statistics.getHits() / lookups;
+    }
 }
\ No newline at end of file
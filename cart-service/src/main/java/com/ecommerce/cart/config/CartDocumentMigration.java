@@ -0,0 +1,59 @@
+package com.ecommerce.cart.config;
+
+import com.ecommerce.cart.document.Cart;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Brings carts written by older versions up to the current document shape in place:
+// money fields as Decimal128 (the update pipelines add and multiply them server-side)
+// and items as a sub-document keyed by product id instead of an array.
+// Runs once all singletons exist, before the web server and Kafka listeners touch any cart.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CartDocumentMigration implements SmartInitializingSingleton {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Document decimalItems = new Document("$map", new Document("input", new Document("$ifNull", List.of("$items", List.of())))
+                .append("as", "item")
+                .append("in", new Document("$mergeObjects", List.of("$$item",
+                        new Document("price", new Document("$toDecimal", "$$item.price"))
+                                .append("subtotal", new Document("$toDecimal", "$$item.subtotal"))))));
+
+        long converted = migrate(Filters.type("totalAmount", "string"),
+                new Document("$set", new Document("items", decimalItems)
+                        .append("totalAmount", new Document("$toDecimal", "$totalAmount"))));
+        if (converted > 0) {
+            log.info("Converted money fields to Decimal128 on {} carts", converted);
+        }
+
+        Document keyedItems = new Document("$arrayToObject", new Document("$map", new Document("input", "$items")
+                .append("as", "item")
+                .append("in", new Document("k", new Document("$toString", "$$item.productId"))
+                        .append("v", "$$item"))));
+
+        long rekeyed = migrate(Filters.type("items", "array"),
+                new Document("$set", new Document("items", keyedItems)));
+        if (rekeyed > 0) {
+            log.info("Keyed items by product id on {} carts", rekeyed);
+        }
+    }
+
+    private long migrate(Bson filter, Document stage) {
+        UpdateResult result = mongoTemplate.execute(Cart.class,
+                collection -> collection.updateMany(filter, List.of(stage)));
+        return result != null ? result.getModifiedCount() : 0;
+    }
+}
@@ -0,0 +1,59 @@
+package com.ecommerce.cart.controller;
+
+import com.ecommerce.cart.dto.AddToCartDto;
+import com.ecommerce.cart.dto.BulkAddToCartDto;
+import com.ecommerce.cart.dto.CartDto;
+import com.ecommerce.cart.dto.UpdateCartItemDto;
+import com.ecommerce.cart.service.CartService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/cart/users/{userId}")
+@RequiredArgsConstructor
+public class CartController {
+
+    private final CartService cartService;
+
+    @GetMapping
+    public ResponseEntity<CartDto> getCart(@PathVariable Long userId) {
+        CartDto cart = cartService.getCart(userId);
+        return ResponseEntity.ok(cart);
+    }
+
+    @PostMapping("/items")
+    public ResponseEntity<CartDto> addToCart(@PathVariable Long userId,
+                                             @Valid @RequestBody AddToCartDto addToCartDto) {
+        CartDto cart = cartService.addToCart(userId, addToCartDto);
+        return ResponseEntity.ok(cart);
+    }
+
+    @PostMapping("/items/bulk")
+    public ResponseEntity<CartDto> addItemsToCart(@PathVariable Long userId,
+                                                  @Valid @RequestBody BulkAddToCartDto bulkAddToCartDto) {
+        CartDto cart = cartService.addItemsToCart(userId, bulkAddToCartDto.getItems());
+        return ResponseEntity.ok(cart);
+    }
+
+    @PutMapping("/items/{productId}")
+    public ResponseEntity<CartDto> updateCartItem(@PathVariable Long userId,
+                                                  @PathVariable Long productId,
+                                                  @Valid @RequestBody UpdateCartItemDto updateDto) {
+        CartDto cart = cartService.updateCartItem(userId, productId, updateDto);
+        return ResponseEntity.ok(cart);
+    }
+
+    @DeleteMapping("/items/{productId}")
+    public ResponseEntity<CartDto> removeFromCart(@PathVariable Long userId, @PathVariable Long productId) {
+        CartDto cart = cartService.removeFromCart(userId, productId);
+        return ResponseEntity.ok(cart);
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> clearCart(@PathVariable Long userId) {
+        cartService.clearCart(userId);
+        return ResponseEntity.noContent().build();
+    }
+}
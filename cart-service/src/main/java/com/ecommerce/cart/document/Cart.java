@@ -6,11 +6,14 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Map;
 
 @Document(collection = "carts")
 @Data
@@ -20,12 +23,23 @@ import java.util.List;
 public class Cart {
     @Id
     private String id;
+
+    @Indexed(unique = true)
     private Long userId;
-    private List<CartItem> items;
+
+    // Keyed by product id: lines are addressed directly as items.<productId> in updates
+    private Map<Long, CartItem> items;
+
+    // Stored as Decimal128 so totals can be computed server-side in update pipelines
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal totalAmount;
+
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    // Version of the Redis-primary cart last written behind; unset when Mongo is the primary store
+    private Long revision;
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -33,8 +47,13 @@ public class Cart {
     public static class CartItem {
         private Long productId;
         private String productName;
+
+        @Field(targetType = FieldType.DECIMAL128)
         private BigDecimal price;
+
         private Integer quantity;
+
+        @Field(targetType = FieldType.DECIMAL128)
         private BigDecimal subtotal;
     }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.ecommerce.cart.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Document(collection = "processed_order_events")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedOrderEvent {
+    @Id
+    private String orderNumber;
+    private Long userId;
+
+    @Indexed(expireAfter = "7d")
+    private LocalDateTime processedAt;
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.cart.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkAddToCartDto {
+    @NotEmpty(message = "Items are required")
+    @Size(max = 200, message = "At most 200 items can be added at once")
+    @Valid
+    private List<AddToCartDto> items;
+}
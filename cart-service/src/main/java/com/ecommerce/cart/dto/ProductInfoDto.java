@@ -0,0 +1,18 @@
+package com.ecommerce.cart.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProductInfoDto {
+    private Long id;
+    private String name;
+    private BigDecimal price;
+    private String status;
+}
@@ -3,22 +3,56 @@ package com.ecommerce.cart.kafka;
 import com.ecommerce.cart.document.Cart;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
+// Cart events are coalesced per user and emitted once per window: within a window only the latest
+// CART_UPDATED survives, and a CART_CLEARED is always sent, ahead of any update that followed it.
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class CartEventProducer {
 
+    private static final String TOPIC = "cart-events";
+
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final ObjectMapper objectMapper;
+    private final int maxPending;
+
+    private final Map<Long, PendingEvents> pending = new ConcurrentHashMap<>();
+    // Serialises flushes so two of them never interleave sends for the same user
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Counter received;
+    private final Counter suppressed;
+    private final Counter emitted;
+
+    public CartEventProducer(KafkaTemplate<String, String> kafkaTemplate,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${cart.events.max-pending:5000}") int maxPending) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.maxPending = maxPending;
+        this.received = meterRegistry.counter("cart.events", "result", "received");
+        this.suppressed = meterRegistry.counter("cart.events", "result", "suppressed");
+        this.emitted = meterRegistry.counter("cart.events", "result", "emitted");
+        Gauge.builder("cart.events.suppressed.ratio", this, producer -> producer.suppressedRatio())
+                .description("Share of cart events coalesced away before reaching Kafka")
+                .register(meterRegistry);
+    }
 
     public void sendCartUpdatedEvent(Cart cart) {
         try {
@@ -31,9 +65,7 @@ public class CartEventProducer {
             event.put("timestamp", LocalDateTime.now());
 
             String message = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send("cart-events", cart.getUserId().toString(), message);
-
-            log.info("Cart updated event sent for user: {}", cart.getUserId());
+            enqueue(cart.getUserId(), message, false);
         } catch (JsonProcessingException e) {
             log.error("Error sending cart updated event", e);
         }
@@ -47,11 +79,94 @@ public class CartEventProducer {
             event.put("timestamp", LocalDateTime.now());
 
             String message = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send("cart-events", userId.toString(), message);
-
-            log.info("Cart cleared event sent for user: {}", userId);
+            enqueue(userId, message, true);
         } catch (JsonProcessingException e) {
             log.error("Error sending cart cleared event", e);
         }
     }
-}
\ No newline at end of file
+
+    @Scheduled(fixedDelayString = "${cart.events.window-ms:500}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void enqueue(Long userId, String message, boolean cleared) {
+        received.increment();
+        pending.compute(userId, (id, events) -> {
+            PendingEvents next = events == null ? new PendingEvents() : events;
+            if (cleared) {
+                // A clear supersedes everything before it, including an earlier clear
+                if (next.cleared != null) {
+                    suppressed.increment();
+                }
+                if (next.updated != null) {
+                    suppressed.increment();
+                    next.updated = null;
+                }
+                next.cleared = message;
+            } else {
+                if (next.updated != null) {
+                    suppressed.increment();
+                }
+                next.updated = message;
+            }
+            return next;
+        });
+
+        // Size bound: the caller flushes unless a flush is already running
+        if (pending.size() >= maxPending && flushLock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    private void drain() {
+        int users = 0;
+        for (Long userId : pending.keySet()) {
+            PendingEvents events = pending.remove(userId);
+            if (events == null) {
+                continue;
+            }
+            // Keyed by user id, so the partition keeps CLEARED before the UPDATED that followed it
+            if (events.cleared != null) {
+                send(userId, events.cleared);
+            }
+            if (events.updated != null) {
+                send(userId, events.updated);
+            }
+            users++;
+        }
+        if (users > 0) {
+            log.debug("Cart events flushed for {} users", users);
+        }
+    }
+
+    private void send(Long userId, String message) {
+        kafkaTemplate.send(TOPIC, userId.toString(), message);
+        emitted.increment();
+    }
+
+    private double suppressedRatio() {
+        double total = received.count();
+        return total == 0 ? 0 : suppressed.count() / total;
+    }
+
+    // At most one clear followed by one update per user
+    private static class PendingEvents {
+        private String cleared;
+        private String updated;
+    }
+}
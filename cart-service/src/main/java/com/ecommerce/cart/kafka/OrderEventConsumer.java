@@ -0,0 +1,91 @@
+package com.ecommerce.cart.kafka;
+
+import com.ecommerce.cart.document.ProcessedOrderEvent;
+import com.ecommerce.cart.repository.ProcessedOrderEventRepository;
+import com.ecommerce.cart.service.CartService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+@Slf4j
+public class OrderEventConsumer {
+
+    private final CartService cartService;
+    private final ProcessedOrderEventRepository processedOrderEventRepository;
+    private final ObjectMapper objectMapper;
+    private final Timer lagTimer;
+
+    public OrderEventConsumer(CartService cartService,
+                              ProcessedOrderEventRepository processedOrderEventRepository,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry) {
+        this.cartService = cartService;
+        this.processedOrderEventRepository = processedOrderEventRepository;
+        this.objectMapper = objectMapper;
+        this.lagTimer = Timer.builder("cart.order.events.lag")
+                .description("Time between an order event being produced and the ordered lines leaving the cart")
+                .register(meterRegistry);
+    }
+
+    @KafkaListener(topics = "order-events", groupId = "cart-service")
+    public void onOrderEvent(ConsumerRecord<String, String> record) {
+        try {
+            JsonNode event = objectMapper.readTree(record.value());
+            if (!"ORDER_CREATED".equals(event.path("eventType").asText())) {
+                return;
+            }
+
+            String orderNumber = event.get("orderNumber").asText();
+            Long userId = event.get("userId").asLong();
+
+            // Events from before the lines were included cannot say what was ordered; leave the cart alone
+            // rather than wipe items the user may have added since
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            event.path("items").forEach(item ->
+                    quantities.merge(item.path("productId").asLong(), item.path("quantity").asInt(), Integer::sum));
+            if (quantities.isEmpty()) {
+                log.warn("Order created event for order {} carries no items, cart left unchanged", orderNumber);
+                return;
+            }
+
+            // Claiming the order first makes a concurrent or repeated delivery fail on the key,
+            // so the lines are only taken out of the cart once
+            try {
+                processedOrderEventRepository.insert(ProcessedOrderEvent.builder()
+                        .orderNumber(orderNumber)
+                        .userId(userId)
+                        .processedAt(LocalDateTime.now())
+                        .build());
+            } catch (DuplicateKeyException e) {
+                log.debug("Order created event already processed for order: {}", orderNumber);
+                return;
+            }
+
+            try {
+                cartService.removeOrderedItems(userId, quantities);
+            } catch (RuntimeException e) {
+                // Give up the claim so the redelivery can apply the order
+                processedOrderEventRepository.deleteById(orderNumber);
+                throw e;
+            }
+
+            lagTimer.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - record.timestamp())));
+            log.info("Removed ordered items from cart for user: {} after order: {}", userId, orderNumber);
+        } catch (JsonProcessingException e) {
+            log.error("Error processing order event", e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.cart.kafka;
+
+import com.ecommerce.cart.service.ProductInfoCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductEventConsumer {
+
+    private final ProductInfoCache productInfoCache;
+    private final ObjectMapper objectMapper;
+
+    // Every instance keeps its own near-cache, so each one needs its own consumer group
+    @KafkaListener(
+            topics = "product-events",
+            groupId = "${spring.application.name}-product-cache-${random.uuid}",
+            properties = "auto.offset.reset=latest")
+    public void onProductEvent(String message) {
+        try {
+            JsonNode event = objectMapper.readTree(message);
+            productInfoCache.invalidate(event.get("productId").asLong());
+        } catch (JsonProcessingException e) {
+            log.error("Error processing product event", e);
+        }
+    }
+}
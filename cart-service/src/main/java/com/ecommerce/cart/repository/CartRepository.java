@@ -7,7 +7,7 @@ import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
-public interface CartRepository extends MongoRepository<Cart, String> {
+public interface CartRepository extends MongoRepository<Cart, String>, CartRepositoryCustom {
     Optional<Cart> findByUserId(Long userId);
     void deleteByUserId(Long userId);
 }
\ No newline at end of file
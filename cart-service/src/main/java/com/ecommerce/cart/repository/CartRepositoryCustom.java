@@ -0,0 +1,21 @@
+package com.ecommerce.cart.repository;
+
+import com.ecommerce.cart.document.Cart;
+
+import java.util.List;
+import java.util.Map;
+
+// Single round-trip, server-side cart mutations; each returns the cart as it is after the update
+public interface CartRepositoryCustom {
+    Cart addItem(Long userId, Cart.CartItem item);
+
+    // Lines must have distinct product ids
+    Cart addItems(Long userId, List<Cart.CartItem> items);
+
+    Cart updateItemQuantity(Long userId, Long productId, int quantity);
+
+    Cart removeItem(Long userId, Long productId);
+
+    // Lines that reach zero are removed; products without a line are ignored
+    Cart subtractItems(Long userId, Map<Long, Integer> quantities);
+}
@@ -0,0 +1,153 @@
+package com.ecommerce.cart.repository;
+
+import com.ecommerce.cart.document.Cart;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+// Items are stored as a sub-document keyed by product id, so every mutation addresses exactly one
+// line by path and moves totalAmount by that line's delta instead of rescanning the cart
+@RequiredArgsConstructor
+public class CartRepositoryImpl implements CartRepositoryCustom {
+
+    private static final String DELTA = "_delta";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Cart addItem(Long userId, Cart.CartItem item) {
+        return addItems(userId, List.of(item));
+    }
+
+    @Override
+    public Cart addItems(Long userId, List<Cart.CartItem> items) {
+        // All lines are set in one stage, so every expression still sees the cart as it was before the update
+        Document set = new Document();
+        List<Object> deltas = new ArrayList<>();
+        for (Cart.CartItem item : items) {
+            String line = "items." + item.getProductId();
+            Document newItem = new Document("productId", item.getProductId())
+                    .append("productName", item.getProductName())
+                    .append("price", new Decimal128(item.getPrice()))
+                    .append("quantity", item.getQuantity())
+                    .append("subtotal", new Decimal128(item.getSubtotal()));
+
+            // An existing line keeps its price and grows by the added quantity; otherwise the new line is set
+            Document quantity = new Document("$add", List.of("$" + line + ".quantity", item.getQuantity()));
+            Document existing = new Document("$eq", List.of(new Document("$type", "$" + line), "object"));
+            Document merged = new Document("$mergeObjects", List.of("$" + line, new Document("quantity", quantity)
+                    .append("subtotal", new Document("$multiply", List.of("$" + line + ".price", quantity)))));
+
+            set.append(line, new Document("$cond", List.of(existing, merged, new Document("$literal", newItem))));
+            deltas.add(new Document("$cond", List.of(existing,
+                    new Document("$multiply", List.of("$" + line + ".price", item.getQuantity())),
+                    new Decimal128(item.getSubtotal()))));
+        }
+
+        Date now = new Date();
+        List<Bson> pipeline = List.of(
+                new Document("$set", set
+                        .append(DELTA, new Document("$add", deltas))
+                        .append("createdAt", new Document("$ifNull", List.of("$createdAt", now)))
+                        .append("updatedAt", now)),
+                applyDelta(),
+                new Document("$unset", DELTA));
+
+        FindOneAndUpdateOptions upsert = new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER);
+        try {
+            return update(Filters.eq("userId", userId), pipeline, upsert);
+        } catch (DuplicateKeyException e) {
+            // Lost the race to create the cart; the second attempt matches the winner's document
+            return update(Filters.eq("userId", userId), pipeline, upsert);
+        }
+    }
+
+    @Override
+    public Cart updateItemQuantity(Long userId, Long productId, int quantity) {
+        String line = "items." + productId;
+        Document subtotal = new Document("$multiply", List.of("$" + line + ".price", quantity));
+
+        List<Bson> pipeline = List.of(
+                new Document("$set", new Document(DELTA, new Document("$subtract", List.of(subtotal, "$" + line + ".subtotal")))
+                        .append(line + ".quantity", quantity)
+                        .append(line + ".subtotal", subtotal)
+                        .append("updatedAt", new Date())),
+                applyDelta(),
+                new Document("$unset", DELTA));
+
+        return update(Filters.and(Filters.eq("userId", userId), Filters.exists(line)), pipeline,
+                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+    }
+
+    @Override
+    public Cart removeItem(Long userId, Long productId) {
+        String line = "items." + productId;
+
+        List<Bson> pipeline = List.of(
+                new Document("$set", new Document(DELTA, new Document("$multiply", List.of(
+                        new Document("$ifNull", List.of("$" + line + ".subtotal", new Decimal128(BigDecimal.ZERO))), -1)))
+                        .append("updatedAt", new Date())),
+                applyDelta(),
+                new Document("$unset", List.of(DELTA, line)));
+
+        return update(Filters.eq("userId", userId), pipeline,
+                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+    }
+
+    @Override
+    public Cart subtractItems(Long userId, Map<Long, Integer> quantities) {
+        Document set = new Document();
+        List<Object> deltas = new ArrayList<>();
+        quantities.forEach((productId, quantity) -> {
+            String line = "items." + productId;
+            Document remaining = new Document("$subtract", List.of("$" + line + ".quantity", quantity));
+            Document existing = new Document("$eq", List.of(new Document("$type", "$" + line), "object"));
+            Document kept = new Document("$and", List.of(existing, new Document("$gt", List.of(remaining, 0))));
+            Document subtotal = new Document("$multiply", List.of("$" + line + ".price", remaining));
+
+            // A line that runs out is removed; a missing line stays missing
+            set.append(line, new Document("$cond", List.of(kept,
+                    new Document("$mergeObjects", List.of("$" + line,
+                            new Document("quantity", remaining).append("subtotal", subtotal))),
+                    "$$REMOVE")));
+            deltas.add(new Document("$cond", List.of(existing,
+                    new Document("$subtract", List.of(
+                            new Document("$cond", List.of(kept, subtotal, new Decimal128(BigDecimal.ZERO))),
+                            "$" + line + ".subtotal")),
+                    new Decimal128(BigDecimal.ZERO))));
+        });
+
+        // Deltas are computed in a stage of their own so they still see the lines as they were
+        List<Bson> pipeline = List.of(
+                new Document("$set", new Document(DELTA, new Document("$add", deltas)).append("updatedAt", new Date())),
+                applyDelta(),
+                new Document("$set", set),
+                new Document("$unset", DELTA));
+
+        return update(Filters.eq("userId", userId), pipeline,
+                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+    }
+
+    private static Document applyDelta() {
+        return new Document("$set", new Document("totalAmount", new Document("$add", List.of(
+                new Document("$ifNull", List.of("$totalAmount", new Decimal128(BigDecimal.ZERO))), "$" + DELTA))));
+    }
+
+    private Cart update(Bson filter, List<Bson> pipeline, FindOneAndUpdateOptions options) {
+        Document updated = mongoTemplate.execute(Cart.class,
+                collection -> collection.findOneAndUpdate(filter, pipeline, options));
+        return updated != null ? mongoTemplate.getConverter().read(Cart.class, updated) : null;
+    }
+}
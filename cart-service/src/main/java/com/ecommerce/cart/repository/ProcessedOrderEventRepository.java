@@ -0,0 +1,9 @@
+package com.ecommerce.cart.repository;
+
+import com.ecommerce.cart.document.ProcessedOrderEvent;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProcessedOrderEventRepository extends MongoRepository<ProcessedOrderEvent, String> {
+}
@@ -3,22 +3,23 @@ package com.ecommerce.cart.service;
 import com.ecommerce.cart.document.Cart;
 import com.ecommerce.cart.dto.AddToCartDto;
 import com.ecommerce.cart.dto.CartDto;
+import com.ecommerce.cart.dto.ProductInfoDto;
 import com.ecommerce.cart.dto.UpdateCartItemDto;
 import com.ecommerce.cart.kafka.CartEventProducer;
-import com.ecommerce.cart.repository.CartRepository;
+import com.ecommerce.cart.store.CartStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,60 +27,79 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CartService {
 
-    private final CartRepository cartRepository;
+    private final CartStore cartStore;
     private final CartEventProducer cartEventProducer;
-    private final RestTemplate restTemplate;
+    private final ProductInfoCache productInfoCache;
 
-    @CacheEvict(value = "carts", key = "#userId")
+    // Write-through: the cart page is read straight after every change
+    @CachePut(value = "carts", key = "#userId")
     public CartDto addToCart(Long userId, AddToCartDto addToCartDto) {
         // Get product details from product service
-        Map<String, Object> productDetails = getProductDetails(addToCartDto.getProductId());
+        ProductInfoDto product = getProductDetails(addToCartDto.getProductId());
 
-        if (productDetails == null) {
+        if (product == null) {
             throw new RuntimeException("Product not found");
         }
+        if (!"ACTIVE".equals(product.getStatus())) {
+            throw new RuntimeException("Product is not available");
+        }
 
-        String productName = (String) productDetails.get("name");
-        BigDecimal price = new BigDecimal(productDetails.get("price").toString());
+        String productName = product.getName();
+        BigDecimal price = product.getPrice();
 
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElse(Cart.builder()
-                        .userId(userId)
-                        .items(new ArrayList<>())
-                        .totalAmount(BigDecimal.ZERO)
-                        .createdAt(LocalDateTime.now())
-                        .build());
+        Cart.CartItem newItem = Cart.CartItem.builder()
+                .productId(addToCartDto.getProductId())
+                .productName(productName)
+                .price(price)
+                .quantity(addToCartDto.getQuantity())
+                .subtotal(price.multiply(BigDecimal.valueOf(addToCartDto.getQuantity())))
+                .build();
 
-        // Check if product already in cart
-        Optional<Cart.CartItem> existingItem = cart.getItems().stream()
-                .filter(item -> item.getProductId().equals(addToCartDto.getProductId()))
-                .findFirst();
-
-        if (existingItem.isPresent()) {
-            // Update quantity
-            existingItem.get().setQuantity(existingItem.get().getQuantity() + addToCartDto.getQuantity());
-            existingItem.get().setSubtotal(existingItem.get().getPrice().multiply(BigDecimal.valueOf(existingItem.get().getQuantity())));
-        } else {
-            // Add new item
-            Cart.CartItem newItem = Cart.CartItem.builder()
-                    .productId(addToCartDto.getProductId())
-                    .productName(productName)
-                    .price(price)
-                    .quantity(addToCartDto.getQuantity())
-                    .subtotal(price.multiply(BigDecimal.valueOf(addToCartDto.getQuantity())))
-                    .build();
-
-            cart.getItems().add(newItem);
-        }
+        // Upserts the cart, merges the line and recomputes the total in one atomic update
+        Cart savedCart = cartStore.addItem(userId, newItem);
+
+        // Send cart update event
+        cartEventProducer.sendCartUpdatedEvent(savedCart);
 
-        // Recalculate total
-        cart.setTotalAmount(cart.getItems().stream()
-                .map(Cart.CartItem::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add));
+        return mapToCartDto(savedCart);
+    }
 
-        cart.setUpdatedAt(LocalDateTime.now());
+    // Reorders and saved lists: one product lookup, one cart update and one event for the whole batch
+    @CachePut(value = "carts", key = "#userId")
+    public CartDto addItemsToCart(Long userId, List<AddToCartDto> items) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (AddToCartDto item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        Map<Long, ProductInfoDto> products;
+        try {
+            products = productInfoCache.getProducts(quantities.keySet());
+        } catch (Exception e) {
+            log.error("Error fetching product details for productIds: {}", quantities.keySet(), e);
+            throw new RuntimeException("Product details unavailable");
+        }
 
-        Cart savedCart = cartRepository.save(cart);
+        List<Cart.CartItem> newItems = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> {
+            ProductInfoDto product = products.get(productId);
+            if (product == null) {
+                throw new RuntimeException("Product not found: " + productId);
+            }
+            if (!"ACTIVE".equals(product.getStatus())) {
+                throw new RuntimeException("Product is not available: " + productId);
+            }
+
+            newItems.add(Cart.CartItem.builder()
+                    .productId(productId)
+                    .productName(product.getName())
+                    .price(product.getPrice())
+                    .quantity(quantity)
+                    .subtotal(product.getPrice().multiply(BigDecimal.valueOf(quantity)))
+                    .build());
+        });
+
+        Cart savedCart = cartStore.addItems(userId, newItems);
 
         // Send cart update event
         cartEventProducer.sendCartUpdatedEvent(savedCart);
@@ -89,10 +109,10 @@ public class CartService {
 
     @Cacheable(value = "carts", key = "#userId")
     public CartDto getCart(Long userId) {
-        Cart cart = cartRepository.findByUserId(userId)
+        Cart cart = cartStore.findByUserId(userId)
                 .orElse(Cart.builder()
                         .userId(userId)
-                        .items(new ArrayList<>())
+                        .items(new LinkedHashMap<>())
                         .totalAmount(BigDecimal.ZERO)
                         .createdAt(LocalDateTime.now())
                         .build());
@@ -100,27 +120,12 @@ public class CartService {
         return mapToCartDto(cart);
     }
 
-    @CacheEvict(value = "carts", key = "#userId")
+    @CachePut(value = "carts", key = "#userId")
     public CartDto updateCartItem(Long userId, Long productId, UpdateCartItemDto updateDto) {
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Cart not found"));
-
-        Cart.CartItem item = cart.getItems().stream()
-                .filter(cartItem -> cartItem.getProductId().equals(productId))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Item not found in cart"));
-
-        item.setQuantity(updateDto.getQuantity());
-        item.setSubtotal(item.getPrice().multiply(BigDecimal.valueOf(updateDto.getQuantity())));
-
-        // Recalculate total
-        cart.setTotalAmount(cart.getItems().stream()
-                .map(Cart.CartItem::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add));
-
-        cart.setUpdatedAt(LocalDateTime.now());
-
-        Cart savedCart = cartRepository.save(cart);
+        Cart savedCart = cartStore.updateItemQuantity(userId, productId, updateDto.getQuantity());
+        if (savedCart == null) {
+            throw new RuntimeException("Item not found in cart");
+        }
 
         // Send cart update event
         cartEventProducer.sendCartUpdatedEvent(savedCart);
@@ -128,40 +133,42 @@ public class CartService {
         return mapToCartDto(savedCart);
     }
 
-    @CacheEvict(value = "carts", key = "#userId")
+    @CachePut(value = "carts", key = "#userId")
     public CartDto removeFromCart(Long userId, Long productId) {
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Cart not found"));
-
-        cart.getItems().removeIf(item -> item.getProductId().equals(productId));
+        Cart savedCart = cartStore.removeItem(userId, productId);
+        if (savedCart == null) {
+            throw new RuntimeException("Cart not found");
+        }
 
-        // Recalculate total
-        cart.setTotalAmount(cart.getItems().stream()
-                .map(Cart.CartItem::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add));
+        // Send cart update event
+        cartEventProducer.sendCartUpdatedEvent(savedCart);
 
-        cart.setUpdatedAt(LocalDateTime.now());
+        return mapToCartDto(savedCart);
+    }
 
-        Cart savedCart = cartRepository.save(cart);
+    // Checkout: takes the ordered quantities out of the cart, leaving anything added since the order was placed
+    @CacheEvict(value = "carts", key = "#userId")
+    public void removeOrderedItems(Long userId, Map<Long, Integer> quantities) {
+        Cart savedCart = cartStore.subtractItems(userId, quantities);
+        if (savedCart == null) {
+            return;
+        }
 
         // Send cart update event
         cartEventProducer.sendCartUpdatedEvent(savedCart);
-
-        return mapToCartDto(savedCart);
     }
 
     @CacheEvict(value = "carts", key = "#userId")
     public void clearCart(Long userId) {
-        cartRepository.deleteByUserId(userId);
+        cartStore.deleteByUserId(userId);
 
         // Send cart cleared event
         cartEventProducer.sendCartClearedEvent(userId);
     }
 
-    private Map<String, Object> getProductDetails(Long productId) {
+    private ProductInfoDto getProductDetails(Long productId) {
         try {
-            String productServiceUrl = "http://localhost:8082/api/products/" + productId;
-            return restTemplate.getForObject(productServiceUrl, Map.class);
+            return productInfoCache.getProduct(productId);
         } catch (Exception e) {
             log.error("Error fetching product details for productId: {}", productId, e);
             return null;
@@ -176,7 +183,7 @@ public class CartService {
         dto.setCreatedAt(cart.getCreatedAt());
         dto.setUpdatedAt(cart.getUpdatedAt());
 
-        List<CartDto.CartItemDto> itemDtos = cart.getItems().stream()
+        List<CartDto.CartItemDto> itemDtos = cart.getItems().values().stream()
                 .map(item -> {
                     CartDto.CartItemDto itemDto = new CartDto.CartItemDto();
                     itemDto.setProductId(item.getProductId());
@@ -0,0 +1,52 @@
+package com.ecommerce.cart.service;
+
+import com.ecommerce.cart.client.ProductClient;
+import com.ecommerce.cart.dto.ProductInfoDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// Per-instance near-cache of catalog product details; entries are dropped by ProductEventConsumer
+// as soon as the catalog changes a product, and the TTL bounds staleness if an event is missed
+@Component
+@Slf4j
+public class ProductInfoCache {
+
+    private final ProductClient productClient;
+    private final Cache<Long, ProductInfoDto> products;
+
+    public ProductInfoCache(ProductClient productClient,
+                            MeterRegistry meterRegistry,
+                            @Value("${cart.product-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${cart.product-cache.expire-after-write:5m}") Duration expireAfterWrite) {
+        this.productClient = productClient;
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "cart.products");
+    }
+
+    public ProductInfoDto getProduct(Long productId) {
+        return getProducts(List.of(productId)).get(productId);
+    }
+
+    // Misses are fetched together in one batch call; unknown ids are simply absent from the result
+    public Map<Long, ProductInfoDto> getProducts(Collection<Long> productIds) {
+        return products.getAll(productIds, productClient::getProducts);
+    }
+
+    public void invalidate(Long productId) {
+        products.invalidate(productId);
+    }
+}
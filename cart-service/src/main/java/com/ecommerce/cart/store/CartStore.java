@@ -0,0 +1,28 @@
+package com.ecommerce.cart.store;
+
+import com.ecommerce.cart.document.Cart;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Authoritative storage for live carts, selected with cart.storage.mode; mutations return the cart as it is after the update
+public interface CartStore {
+    Optional<Cart> findByUserId(Long userId);
+
+    Cart addItem(Long userId, Cart.CartItem item);
+
+    // Applies every line in one update; lines must have distinct product ids
+    Cart addItems(Long userId, List<Cart.CartItem> items);
+
+    // Returns null when the cart has no line for the product
+    Cart updateItemQuantity(Long userId, Long productId, int quantity);
+
+    // Returns null when the user has no cart
+    Cart removeItem(Long userId, Long productId);
+
+    // Takes the quantities off their lines, dropping lines that reach zero; returns null when the user has no cart
+    Cart subtractItems(Long userId, Map<Long, Integer> quantities);
+
+    void deleteByUserId(Long userId);
+}
@@ -0,0 +1,190 @@
+package com.ecommerce.cart.store;
+
+import com.ecommerce.cart.document.Cart;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteManyModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Drains cart:changes through a consumer group and writes the current state of every touched cart to
+// Mongo in one unordered bulk write. Entries are acknowledged only after the write, so a crashed
+// instance's backlog stays pending and is claimed by a live one; writes are conditional on revision,
+// so replays and out-of-order flushes never move a document backwards.
+@Component
+@ConditionalOnProperty(name = "cart.storage.mode", havingValue = "redis")
+@Slf4j
+public class CartWriteBehindFlusher implements SmartInitializingSingleton {
+
+    private static final String GROUP = "cart-write-behind";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisCartStore cartStore;
+    private final MongoTemplate mongoTemplate;
+    private final String consumerName;
+    private final int batchSize;
+    private final Duration claimIdle;
+
+    public CartWriteBehindFlusher(StringRedisTemplate redisTemplate,
+                                  RedisCartStore cartStore,
+                                  MongoTemplate mongoTemplate,
+                                  @Value("${cart.storage.redis.consumer-name}") String consumerName,
+                                  @Value("${cart.storage.redis.flush-batch-size:500}") int batchSize,
+                                  @Value("${cart.storage.redis.claim-idle:60s}") Duration claimIdle) {
+        this.redisTemplate = redisTemplate;
+        this.cartStore = cartStore;
+        this.mongoTemplate = mongoTemplate;
+        this.consumerName = consumerName;
+        this.batchSize = batchSize;
+        this.claimIdle = claimIdle;
+    }
+
+    // Runs before the schedulers start, so the first flush already finds the group
+    @Override
+    public void afterSingletonsInstantiated() {
+        createGroup();
+    }
+
+    @Scheduled(fixedDelayString = "${cart.storage.redis.flush-interval-ms:1000}")
+    public void flush() {
+        try {
+            claimStalled();
+            // Entries this consumer already read but never acknowledged come first, then new ones
+            flushBatch(ReadOffset.from("0"));
+            while (flushBatch(ReadOffset.lastConsumed()) == batchSize) {
+                // keep draining while batches come back full
+            }
+        } catch (RedisSystemException e) {
+            if (!isRedisError(e, "NOGROUP")) {
+                log.error("Cart write-behind flush failed, will retry", e);
+                return;
+            }
+            // The stream or group went away (Redis restarted or was flushed); recreate it and drain next run
+            log.warn("Cart change group {} is missing, recreating it", GROUP);
+            createGroup();
+        } catch (Exception e) {
+            log.error("Cart write-behind flush failed, will retry", e);
+        }
+    }
+
+    private void createGroup() {
+        try {
+            // From 0 so changes written before the group first existed are flushed too
+            redisTemplate.opsForStream().createGroup(RedisCartStore.CHANGES_STREAM, ReadOffset.from("0"), GROUP);
+        } catch (RedisSystemException e) {
+            if (!isRedisError(e, "BUSYGROUP")) {
+                throw e;
+            }
+        }
+    }
+
+    // The translated exception only says "Error in execution"; the Redis error code is on the driver's cause
+    private static boolean isRedisError(RedisSystemException e, String code) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.contains(code);
+    }
+
+    private int flushBatch(ReadOffset offset) {
+        StreamOperations<String, Object, Object> stream = redisTemplate.opsForStream();
+        List<MapRecord<String, Object, Object>> records = stream.read(
+                Consumer.from(GROUP, consumerName),
+                StreamReadOptions.empty().count(batchSize),
+                StreamOffset.create(RedisCartStore.CHANGES_STREAM, offset));
+        if (records == null || records.isEmpty()) {
+            return 0;
+        }
+
+        // Coalesce: however many changes a cart saw, only its current state is written once
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (MapRecord<String, Object, Object> record : records) {
+            userIds.add(Long.valueOf((String) record.getValue().get("userId")));
+        }
+
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        for (Long userId : userIds) {
+            RedisCartStore.LiveCart live = cartStore.read(userId);
+            if (live == null) {
+                // Expired long after its last flush; nothing newer to write
+                continue;
+            }
+            Bson filter = Filters.and(Filters.eq("userId", userId),
+                    Filters.or(Filters.lt("revision", live.cart().getRevision()), Filters.eq("revision", null)));
+            if (live.cleared()) {
+                writes.add(new DeleteManyModel<>(filter));
+            } else {
+                Document document = new Document();
+                mongoTemplate.getConverter().write(live.cart(), document);
+                document.remove("_id");
+                writes.add(new ReplaceOneModel<>(filter, document, new ReplaceOptions().upsert(true)));
+            }
+        }
+        if (!writes.isEmpty()) {
+            write(writes);
+        }
+
+        RecordId[] ids = records.stream().map(MapRecord::getId).toArray(RecordId[]::new);
+        stream.acknowledge(RedisCartStore.CHANGES_STREAM, GROUP, ids);
+        stream.delete(RedisCartStore.CHANGES_STREAM, ids);
+        log.debug("Flushed {} carts from {} changes", userIds.size(), records.size());
+        return records.size();
+    }
+
+    private void write(List<WriteModel<Document>> writes) {
+        try {
+            mongoTemplate.getCollection(mongoTemplate.getCollectionName(Cart.class))
+                    .bulkWrite(writes, new BulkWriteOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            // An upsert whose filter missed because Mongo already holds a newer revision collides on userId; that's a no-op
+            boolean onlyStale = e.getWriteErrors().stream()
+                    .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+            if (!onlyStale || e.getWriteConcernError() != null) {
+                throw e;
+            }
+        }
+    }
+
+    // Takes over entries left pending by consumers that died before acknowledging them
+    private void claimStalled() {
+        StreamOperations<String, Object, Object> stream = redisTemplate.opsForStream();
+        PendingMessages pending = stream.pending(RedisCartStore.CHANGES_STREAM, GROUP, Range.unbounded(), batchSize);
+        RecordId[] stalled = pending.stream()
+                .filter(message -> !consumerName.equals(message.getConsumerName()))
+                .filter(message -> message.getElapsedTimeSinceLastDelivery().compareTo(claimIdle) >= 0)
+                .map(PendingMessage::getId)
+                .toArray(RecordId[]::new);
+        if (stalled.length > 0) {
+            stream.claim(RedisCartStore.CHANGES_STREAM, GROUP, consumerName, claimIdle, stalled);
+            log.info("Claimed {} stalled cart changes", stalled.length);
+        }
+    }
+}
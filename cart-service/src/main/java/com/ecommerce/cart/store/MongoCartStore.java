@@ -0,0 +1,55 @@
+package com.ecommerce.cart.store;
+
+import com.ecommerce.cart.document.Cart;
+import com.ecommerce.cart.repository.CartRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Default mode: every mutation is a single synchronous update pipeline against the carts collection
+@Component
+@ConditionalOnProperty(name = "cart.storage.mode", havingValue = "mongo", matchIfMissing = true)
+@RequiredArgsConstructor
+public class MongoCartStore implements CartStore {
+
+    private final CartRepository cartRepository;
+
+    @Override
+    public Optional<Cart> findByUserId(Long userId) {
+        return cartRepository.findByUserId(userId);
+    }
+
+    @Override
+    public Cart addItem(Long userId, Cart.CartItem item) {
+        return cartRepository.addItem(userId, item);
+    }
+
+    @Override
+    public Cart addItems(Long userId, List<Cart.CartItem> items) {
+        return cartRepository.addItems(userId, items);
+    }
+
+    @Override
+    public Cart updateItemQuantity(Long userId, Long productId, int quantity) {
+        return cartRepository.updateItemQuantity(userId, productId, quantity);
+    }
+
+    @Override
+    public Cart removeItem(Long userId, Long productId) {
+        return cartRepository.removeItem(userId, productId);
+    }
+
+    @Override
+    public Cart subtractItems(Long userId, Map<Long, Integer> quantities) {
+        return cartRepository.subtractItems(userId, quantities);
+    }
+
+    @Override
+    public void deleteByUserId(Long userId) {
+        cartRepository.deleteByUserId(userId);
+    }
+}
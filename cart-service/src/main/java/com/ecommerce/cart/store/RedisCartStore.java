@@ -0,0 +1,344 @@
+package com.ecommerce.cart.store;
+
+import com.ecommerce.cart.document.Cart;
+import com.ecommerce.cart.repository.CartRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Redis-primary mode: the live cart is the hash cart:{userId} and every mutation is one script call.
+// Fields: i:<productId> holds the line's name/price, q:<productId> its quantity, _v the version,
+// _c/_u the timestamps and _id the Mongo id once known; a cleared cart is a tombstone holding only _v
+// and _x. Each mutation appends the user id to the cart:changes stream, which CartWriteBehindFlusher
+// drains into the carts collection.
+@Component
+@ConditionalOnProperty(name = "cart.storage.mode", havingValue = "redis")
+public class RedisCartStore implements CartStore {
+
+    static final String CHANGES_STREAM = "cart:changes";
+
+    private static final String KEY_PREFIX = "cart:";
+    private static final String ITEM_PREFIX = "i:";
+    private static final String QUANTITY_PREFIX = "q:";
+    private static final String VERSION = "_v";
+    private static final String CREATED = "_c";
+    private static final String UPDATED = "_u";
+    private static final String MONGO_ID = "_id";
+    private static final String CLEARED = "_x";
+
+    // Shared tail of every mutation; ARGV[1..3] are always userId, ttl seconds and now millis.
+    // A nil reply means the hash is not loaded yet and the caller has to hydrate it first.
+    private static final String TOUCH = """
+            local function touch()
+              redis.call('HSETNX', KEYS[1], '_c', ARGV[3])
+              redis.call('HSET', KEYS[1], '_u', ARGV[3])
+              redis.call('HDEL', KEYS[1], '_x')
+              local v = redis.call('HINCRBY', KEYS[1], '_v', 1)
+              redis.call('XADD', KEYS[2], '*', 'userId', ARGV[1], 'v', v)
+              redis.call('EXPIRE', KEYS[1], ARGV[2])
+              return redis.call('HGETALL', KEYS[1])
+            end
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+              return false
+            end
+            """;
+
+    // ARGV[4..] product id, line json, quantity triples; an existing line keeps its price
+    private static final RedisScript<List<String>> ADD_SCRIPT = hashScript(TOUCH + """
+            for i = 4, #ARGV, 3 do
+              redis.call('HSETNX', KEYS[1], 'i:' .. ARGV[i], ARGV[i + 1])
+              redis.call('HINCRBY', KEYS[1], 'q:' .. ARGV[i], ARGV[i + 2])
+            end
+            return touch()
+            """);
+
+    // ARGV[4] product id, ARGV[5] quantity; an empty reply means there is no such line
+    private static final RedisScript<List<String>> UPDATE_SCRIPT = hashScript(TOUCH + """
+            if redis.call('HEXISTS', KEYS[1], 'i:' .. ARGV[4]) == 0 then
+              return {}
+            end
+            redis.call('HSET', KEYS[1], 'q:' .. ARGV[4], ARGV[5])
+            return touch()
+            """);
+
+    // ARGV[4] product id; an empty reply means the cart was cleared
+    private static final RedisScript<List<String>> REMOVE_SCRIPT = hashScript(TOUCH + """
+            if redis.call('HEXISTS', KEYS[1], '_x') == 1 then
+              return {}
+            end
+            redis.call('HDEL', KEYS[1], 'i:' .. ARGV[4], 'q:' .. ARGV[4])
+            return touch()
+            """);
+
+    // ARGV[4..] product id, quantity pairs; an empty reply means the cart was cleared
+    private static final RedisScript<List<String>> SUBTRACT_SCRIPT = hashScript(TOUCH + """
+            if redis.call('HEXISTS', KEYS[1], '_x') == 1 then
+              return {}
+            end
+            for i = 4, #ARGV, 2 do
+              if redis.call('HEXISTS', KEYS[1], 'i:' .. ARGV[i]) == 1
+                  and redis.call('HINCRBY', KEYS[1], 'q:' .. ARGV[i], -tonumber(ARGV[i + 1])) <= 0 then
+                redis.call('HDEL', KEYS[1], 'i:' .. ARGV[i], 'q:' .. ARGV[i])
+              end
+            end
+            return touch()
+            """);
+
+    // Keeps the version so the flusher can order the delete against earlier writes
+    private static final RedisScript<List<String>> CLEAR_SCRIPT = hashScript(TOUCH + """
+            local v = redis.call('HINCRBY', KEYS[1], '_v', 1)
+            redis.call('DEL', KEYS[1])
+            redis.call('HSET', KEYS[1], '_v', v, '_x', '1')
+            redis.call('XADD', KEYS[2], '*', 'userId', ARGV[1], 'v', v)
+            redis.call('EXPIRE', KEYS[1], ARGV[2])
+            return {}
+            """);
+
+    // ARGV[1] ttl seconds, then field/value pairs; never overwrites a hash another instance loaded first
+    private static final RedisScript<Long> HYDRATE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 1 then
+              return 0
+            end
+            redis.call('HSET', KEYS[1], unpack(ARGV, 2))
+            redis.call('EXPIRE', KEYS[1], ARGV[1])
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final CartRepository cartRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    public RedisCartStore(StringRedisTemplate redisTemplate,
+                          CartRepository cartRepository,
+                          ObjectMapper objectMapper,
+                          @Value("${cart.storage.redis.ttl:7d}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.cartRepository = cartRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public Optional<Cart> findByUserId(Long userId) {
+        LiveCart live = read(userId);
+        if (live == null) {
+            // Not live in Redis (expired or never touched in this mode): the flushed copy is current
+            return cartRepository.findByUserId(userId);
+        }
+        return live.cleared() ? Optional.empty() : Optional.of(live.cart());
+    }
+
+    @Override
+    public Cart addItem(Long userId, Cart.CartItem item) {
+        return addItems(userId, List.of(item));
+    }
+
+    @Override
+    public Cart addItems(Long userId, List<Cart.CartItem> items) {
+        // Offsetting addedAt keeps the request order of lines added together
+        long addedAt = System.currentTimeMillis();
+        List<String> args = new ArrayList<>(items.size() * 3);
+        for (Cart.CartItem item : items) {
+            args.add(String.valueOf(item.getProductId()));
+            args.add(writeLine(new StoredLine(item.getProductName(), item.getPrice(), addedAt++)));
+            args.add(String.valueOf(item.getQuantity()));
+        }
+        return mutate(userId, true, ADD_SCRIPT, args.toArray(String[]::new));
+    }
+
+    @Override
+    public Cart updateItemQuantity(Long userId, Long productId, int quantity) {
+        return mutate(userId, false, UPDATE_SCRIPT, String.valueOf(productId), String.valueOf(quantity));
+    }
+
+    @Override
+    public Cart removeItem(Long userId, Long productId) {
+        return mutate(userId, false, REMOVE_SCRIPT, String.valueOf(productId));
+    }
+
+    @Override
+    public Cart subtractItems(Long userId, Map<Long, Integer> quantities) {
+        List<String> args = new ArrayList<>(quantities.size() * 2);
+        quantities.forEach((productId, quantity) -> {
+            args.add(String.valueOf(productId));
+            args.add(String.valueOf(quantity));
+        });
+        return mutate(userId, false, SUBTRACT_SCRIPT, args.toArray(String[]::new));
+    }
+
+    @Override
+    public void deleteByUserId(Long userId) {
+        mutate(userId, false, CLEAR_SCRIPT);
+    }
+
+    // Reads the live hash; null when the user's cart is not in Redis
+    LiveCart read(Long userId) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(key(userId));
+        if (fields.isEmpty()) {
+            return null;
+        }
+        Map<String, String> hash = new HashMap<>();
+        fields.forEach((field, value) -> hash.put((String) field, (String) value));
+        return new LiveCart(toCart(userId, hash), hash.containsKey(CLEARED));
+    }
+
+    private Cart mutate(Long userId, boolean create, RedisScript<List<String>> script, String... args) {
+        List<String> keys = List.of(key(userId), CHANGES_STREAM);
+        Object[] argv = new Object[args.length + 3];
+        argv[0] = String.valueOf(userId);
+        argv[1] = String.valueOf(ttl.toSeconds());
+        argv[2] = String.valueOf(System.currentTimeMillis());
+        System.arraycopy(args, 0, argv, 3, args.length);
+
+        List<String> reply = redisTemplate.execute(script, keys, argv);
+        if (reply == null) {
+            if (!hydrate(userId, create)) {
+                return null;
+            }
+            reply = redisTemplate.execute(script, keys, argv);
+        }
+        if (reply == null || reply.isEmpty()) {
+            return null;
+        }
+
+        Map<String, String> hash = new HashMap<>();
+        for (int i = 0; i < reply.size(); i += 2) {
+            hash.put(reply.get(i), reply.get(i + 1));
+        }
+        return toCart(userId, hash);
+    }
+
+    // Loads the user's Mongo cart into Redis, or an empty one when create is set; returns whether there is a cart now
+    private boolean hydrate(Long userId, boolean create) {
+        Optional<Cart> stored = cartRepository.findByUserId(userId);
+        if (stored.isEmpty() && !create) {
+            return false;
+        }
+        List<String> argv = new ArrayList<>();
+        argv.add(String.valueOf(ttl.toSeconds()));
+        argv.add(VERSION);
+        argv.add(String.valueOf(stored.map(Cart::getRevision).orElse(0L)));
+
+        stored.ifPresent(cart -> {
+            if (cart.getId() != null) {
+                argv.add(MONGO_ID);
+                argv.add(cart.getId());
+            }
+            if (cart.getCreatedAt() != null) {
+                argv.add(CREATED);
+                argv.add(String.valueOf(toMillis(cart.getCreatedAt())));
+            }
+            if (cart.getUpdatedAt() != null) {
+                argv.add(UPDATED);
+                argv.add(String.valueOf(toMillis(cart.getUpdatedAt())));
+            }
+            long addedAt = 0;
+            for (Cart.CartItem item : cart.getItems().values()) {
+                argv.add(ITEM_PREFIX + item.getProductId());
+                argv.add(writeLine(new StoredLine(item.getProductName(), item.getPrice(), addedAt++)));
+                argv.add(QUANTITY_PREFIX + item.getProductId());
+                argv.add(String.valueOf(item.getQuantity()));
+            }
+        });
+
+        redisTemplate.execute(HYDRATE_SCRIPT, List.of(key(userId)), argv.toArray());
+        return true;
+    }
+
+    private Cart toCart(Long userId, Map<String, String> hash) {
+        List<Map.Entry<Long, StoredLine>> lines = new ArrayList<>();
+        hash.forEach((field, value) -> {
+            if (field.startsWith(ITEM_PREFIX)) {
+                lines.add(Map.entry(Long.valueOf(field.substring(ITEM_PREFIX.length())), readLine(value)));
+            }
+        });
+        // Hash fields are unordered; keep the order lines were added in
+        lines.sort(Comparator.comparingLong((Map.Entry<Long, StoredLine> e) -> e.getValue().addedAt())
+                .thenComparing(Map.Entry::getKey));
+
+        Map<Long, Cart.CartItem> items = new LinkedHashMap<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<Long, StoredLine> line : lines) {
+            int quantity = Integer.parseInt(hash.getOrDefault(QUANTITY_PREFIX + line.getKey(), "0"));
+            BigDecimal subtotal = line.getValue().price().multiply(BigDecimal.valueOf(quantity));
+            items.put(line.getKey(), Cart.CartItem.builder()
+                    .productId(line.getKey())
+                    .productName(line.getValue().productName())
+                    .price(line.getValue().price())
+                    .quantity(quantity)
+                    .subtotal(subtotal)
+                    .build());
+            total = total.add(subtotal);
+        }
+
+        return Cart.builder()
+                .id(hash.get(MONGO_ID))
+                .userId(userId)
+                .items(items)
+                .totalAmount(total)
+                .createdAt(toDateTime(hash.get(CREATED)))
+                .updatedAt(toDateTime(hash.get(UPDATED)))
+                .revision(Long.valueOf(hash.getOrDefault(VERSION, "0")))
+                .build();
+    }
+
+    private String writeLine(StoredLine line) {
+        try {
+            return objectMapper.writeValueAsString(line);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize cart line", e);
+        }
+    }
+
+    private StoredLine readLine(String json) {
+        try {
+            return objectMapper.readValue(json, StoredLine.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to deserialize cart line", e);
+        }
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(String millis) {
+        return millis == null ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(millis)), ZoneId.systemDefault());
+    }
+
+    // Mutation scripts reply with HGETALL's flat field/value list, which the string template reads back as Strings
+    @SuppressWarnings("unchecked")
+    private static RedisScript<List<String>> hashScript(String script) {
+        return new DefaultRedisScript<>(script, (Class<List<String>>) (Class<?>) List.class);
+    }
+
+    private static String key(Long userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    record LiveCart(Cart cart, boolean cleared) {
+    }
+
+    // Price is fixed when the line is first added, so only the quantity field changes afterwards
+    record StoredLine(String productName, BigDecimal price, long addedAt) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.ecommerce.cart.cache;
+
+import com.ecommerce.cart.dto.CartDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+// Cart cache codecs: the tagged binary format (with the default 512-byte compression threshold and without
+// compression) against the typed JSON fallback and the class-tagged JSON the cache used before.
+// Bytes per cart are printed once per trial; run with:
+//   mvn -pl cart-service test-compile exec:java -Dexec.classpathScope=test
+//       -Dexec.mainClass=com.ecommerce.cart.cache.CartCacheCodecBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartCacheCodecBenchmark {
+
+    @Param({"1", "20", "200"})
+    private int items;
+
+    @Param({"binary", "binary-uncompressed", "json", "generic-json"})
+    private String codec;
+
+    private RedisSerializer<CartDto> serializer;
+    private CartDto cart;
+    private byte[] encoded;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+
+        serializer = switch (codec) {
+            case "binary" -> new CartDtoBinarySerializer(512);
+            case "binary-uncompressed" -> new CartDtoBinarySerializer(0);
+            case "json" -> new Jackson2JsonRedisSerializer<>(mapper, CartDto.class);
+            // Untyped like the old cache; it still reads back a CartDto from the embedded class name
+            case "generic-json" -> (RedisSerializer<CartDto>) (RedisSerializer<?>) new GenericJackson2JsonRedisSerializer()
+                    .configure(objectMapper -> objectMapper.registerModule(new JavaTimeModule()));
+            default -> throw new IllegalArgumentException("Unknown codec: " + codec);
+        };
+        cart = CartDtos.cart(items);
+        encoded = serializer.serialize(cart);
+        System.out.printf("%n[%s, %d items] %d bytes per cart%n", codec, items, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(cart);
+    }
+
+    @Benchmark
+    public CartDto decode() {
+        return serializer.deserialize(encoded);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CartCacheCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,56 @@
+package com.ecommerce.cart.cache;
+
+import com.ecommerce.cart.dto.CartDto;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartDtoBinarySerializerTest {
+
+    private final CartDtoBinarySerializer serializer = new CartDtoBinarySerializer(512);
+    private final CartDtoBinarySerializer uncompressed = new CartDtoBinarySerializer(0);
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer()
+            .configure(mapper -> mapper.registerModule(new JavaTimeModule()));
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, 200})
+    void roundTripsAndStaysSmallerThanJson(int itemCount) {
+        CartDto cart = CartDtos.cart(itemCount);
+
+        byte[] binary = serializer.serialize(cart);
+        byte[] plain = uncompressed.serialize(cart);
+        byte[] jsonBytes = json.serialize(cart);
+
+        assertThat(serializer.deserialize(binary)).isEqualTo(cart);
+        assertThat(uncompressed.deserialize(plain)).isEqualTo(cart);
+        assertThat(binary.length).isLessThan(jsonBytes.length);
+        System.out.printf("items=%-4d json=%7d B  binary=%7d B  binary-uncompressed=%7d B%n",
+                itemCount, jsonBytes.length, binary.length, plain.length);
+    }
+
+    @Test
+    void compressesOnlyFromTheThreshold() {
+        assertThat(serializer.serialize(CartDtos.cart(1))[0]).isEqualTo((byte) 0x01);
+        assertThat(serializer.serialize(CartDtos.cart(200))[0]).isEqualTo((byte) 0x02);
+    }
+
+    @Test
+    void skipsTagsItDoesNotKnow() {
+        // PLAIN, unknown tag 15 as a varint (5), user id 7 (zigzag 14), end of message
+        byte[] bytes = {0x01, (byte) (15 << 3), 0x05, (byte) (2 << 3), 0x0E, 0x00};
+
+        CartDto cart = serializer.deserialize(bytes);
+
+        assertThat(cart.getUserId()).isEqualTo(7L);
+        assertThat(cart.getItems()).isEmpty();
+    }
+
+    @Test
+    void treatsOtherEncodingsAsAMiss() {
+        assertThat(serializer.deserialize(json.serialize(CartDtos.cart(1)))).isNull();
+    }
+}
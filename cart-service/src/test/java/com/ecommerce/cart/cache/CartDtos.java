@@ -0,0 +1,39 @@
+package com.ecommerce.cart.cache;
+
+import com.ecommerce.cart.dto.CartDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Carts shaped like production ones: money at scale 2, realistic product names, nanosecond timestamps
+final class CartDtos {
+
+    private CartDtos() {
+    }
+
+    static CartDto cart(int itemCount) {
+        List<CartDto.CartItemDto> items = new ArrayList<>(itemCount);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < itemCount; i++) {
+            CartDto.CartItemDto item = new CartDto.CartItemDto();
+            item.setProductId(100_000L + i);
+            item.setProductName("Wireless Ergonomic Keyboard, Model " + (i + 1));
+            item.setPrice(new BigDecimal("49.99").add(BigDecimal.valueOf(i, 2)));
+            item.setQuantity(1 + i % 5);
+            item.setSubtotal(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+            total = total.add(item.getSubtotal());
+            items.add(item);
+        }
+
+        CartDto cart = new CartDto();
+        cart.setId("6530f1c2e4b0a1b2c3d4e5f6");
+        cart.setUserId(4_821_337L);
+        cart.setItems(items);
+        cart.setTotalAmount(total);
+        cart.setCreatedAt(LocalDateTime.of(2024, 3, 14, 9, 26, 53, 589_793_000));
+        cart.setUpdatedAt(LocalDateTime.of(2024, 3, 14, 10, 2, 11, 123_456_789));
+        return cart;
+    }
+}
@@ -0,0 +1,167 @@
+package com.ecommerce.cart.repository;
+
+import com.ecommerce.cart.document.Cart;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+// Add, update and remove on carts of 10, 100 and 1000 lines against a real mongod (needs Docker).
+// The keyed update pipelines touch one line and move the total by its delta; the legacy variants
+// replay the previous model: load the whole cart, scan for the line, re-sum every subtotal, save it all.
+// Run with: mvn -pl cart-service test-compile exec:java -Dexec.classpathScope=test
+//           -Dexec.mainClass=com.ecommerce.cart.repository.CartMutationBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartMutationBenchmark {
+
+    private static final long USER_ID = 1L;
+    private static final BigDecimal PRICE = new BigDecimal("19.99");
+
+    @Param({"10", "100", "1000"})
+    private int lines;
+
+    private MongoDBContainer mongo;
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+    private CartRepositoryImpl cartRepository;
+    private long targetProductId;
+    private int quantity;
+
+    @Setup(Level.Trial)
+    public void startMongo() {
+        mongo = new MongoDBContainer(DockerImageName.parse("mongo:7.0"));
+        mongo.start();
+        mongoClient = MongoClients.create(mongo.getConnectionString());
+        mongoTemplate = new MongoTemplate(mongoClient, "cart_benchmark");
+        cartRepository = new CartRepositoryImpl(mongoTemplate);
+
+        List<Cart.CartItem> items = new ArrayList<>(lines);
+        for (long productId = 1; productId <= lines; productId++) {
+            items.add(item(productId, 1));
+        }
+        cartRepository.addItems(USER_ID, items);
+        // A line in the middle, so the legacy scan pays for half the cart on average
+        targetProductId = lines / 2 + 1;
+    }
+
+    @TearDown(Level.Trial)
+    public void stopMongo() {
+        mongoClient.close();
+        mongo.stop();
+    }
+
+    // Each remove needs its line back; re-adding it is a single-line update outside the measurement
+    @Setup(Level.Invocation)
+    public void restoreTargetLine() {
+        if (mongoTemplate.count(query(where("userId").is(USER_ID).and("items." + targetProductId).exists(true)),
+                Cart.class) == 0) {
+            cartRepository.addItem(USER_ID, item(targetProductId, 1));
+        }
+        quantity = quantity % 9 + 1;
+    }
+
+    @Benchmark
+    public Cart add() {
+        return cartRepository.addItem(USER_ID, item(targetProductId, 1));
+    }
+
+    @Benchmark
+    public Cart update() {
+        return cartRepository.updateItemQuantity(USER_ID, targetProductId, quantity);
+    }
+
+    @Benchmark
+    public Cart remove() {
+        return cartRepository.removeItem(USER_ID, targetProductId);
+    }
+
+    @Benchmark
+    public Cart legacyAdd() {
+        Cart cart = loadCart();
+        Cart.CartItem line = findLine(cart);
+        line.setQuantity(line.getQuantity() + 1);
+        line.setSubtotal(line.getPrice().multiply(BigDecimal.valueOf(line.getQuantity())));
+        return saveWithTotal(cart);
+    }
+
+    @Benchmark
+    public Cart legacyUpdate() {
+        Cart cart = loadCart();
+        Cart.CartItem line = findLine(cart);
+        line.setQuantity(quantity);
+        line.setSubtotal(line.getPrice().multiply(BigDecimal.valueOf(quantity)));
+        return saveWithTotal(cart);
+    }
+
+    @Benchmark
+    public Cart legacyRemove() {
+        Cart cart = loadCart();
+        Cart.CartItem line = findLine(cart);
+        cart.getItems().remove(line.getProductId());
+        return saveWithTotal(cart);
+    }
+
+    private Cart loadCart() {
+        return mongoTemplate.findOne(query(where("userId").is(USER_ID)), Cart.class);
+    }
+
+    private Cart.CartItem findLine(Cart cart) {
+        return cart.getItems().values().stream()
+                .filter(item -> item.getProductId().equals(targetProductId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Cart saveWithTotal(Cart cart) {
+        cart.setTotalAmount(cart.getItems().values().stream()
+                .map(Cart.CartItem::getSubtotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+        return mongoTemplate.save(cart);
+    }
+
+    private static Cart.CartItem item(long productId, int quantity) {
+        return Cart.CartItem.builder()
+                .productId(productId)
+                .productName("Product " + productId)
+                .price(PRICE)
+                .quantity(quantity)
+                .subtotal(PRICE.multiply(BigDecimal.valueOf(quantity)))
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CartMutationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,111 @@
+package com.ecommerce.cart.repository;
+
+import com.ecommerce.cart.document.Cart;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The update pipelines keep totalAmount by deltas; these checks hold it against a full re-sum on a large cart
+@Testcontainers(disabledWithoutDocker = true)
+class CartRepositoryImplTest {
+
+    private static final long USER_ID = 7L;
+    private static final int LINES = 1000;
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer(DockerImageName.parse("mongo:7.0"));
+
+    private static MongoClient mongoClient;
+    private static MongoTemplate mongoTemplate;
+
+    private CartRepositoryImpl cartRepository;
+
+    @BeforeAll
+    static void connect() {
+        mongoClient = MongoClients.create(MONGO.getConnectionString());
+        mongoTemplate = new MongoTemplate(mongoClient, "cart_test");
+    }
+
+    @AfterAll
+    static void disconnect() {
+        mongoClient.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(Cart.class);
+        cartRepository = new CartRepositoryImpl(mongoTemplate);
+
+        List<Cart.CartItem> items = new ArrayList<>(LINES);
+        for (long productId = 1; productId <= LINES; productId++) {
+            items.add(item(productId, "2.50", 2));
+        }
+        cartRepository.addItems(USER_ID, items);
+    }
+
+    @Test
+    void totalFollowsEveryMutationOnALargeCart() {
+        Cart cart = cartRepository.addItem(USER_ID, item(500L, "2.50", 3));
+        assertThat(cart.getItems().get(500L).getQuantity()).isEqualTo(5);
+        assertTotalMatchesLines(cart, LINES);
+
+        cart = cartRepository.addItem(USER_ID, item(LINES + 1L, "10.00", 1));
+        assertTotalMatchesLines(cart, LINES + 1);
+
+        cart = cartRepository.updateItemQuantity(USER_ID, 1L, 10);
+        assertThat(cart.getItems().get(1L).getSubtotal()).isEqualByComparingTo("25.00");
+        assertTotalMatchesLines(cart, LINES + 1);
+
+        cart = cartRepository.removeItem(USER_ID, 2L);
+        assertThat(cart.getItems()).doesNotContainKey(2L);
+        assertTotalMatchesLines(cart, LINES);
+
+        cart = cartRepository.subtractItems(USER_ID, Map.of(3L, 2, 4L, 1));
+        assertThat(cart.getItems()).doesNotContainKey(3L);
+        assertThat(cart.getItems().get(4L).getQuantity()).isEqualTo(1);
+        assertTotalMatchesLines(cart, LINES - 1);
+    }
+
+    @Test
+    void missingLinesLeaveTheCartUntouched() {
+        assertThat(cartRepository.updateItemQuantity(USER_ID, LINES + 5L, 3)).isNull();
+
+        Cart cart = cartRepository.removeItem(USER_ID, LINES + 5L);
+        assertTotalMatchesLines(cart, LINES);
+        assertThat(cart.getTotalAmount()).isEqualByComparingTo(new BigDecimal("5.00").multiply(BigDecimal.valueOf(LINES)));
+    }
+
+    private static void assertTotalMatchesLines(Cart cart, int expectedLines) {
+        assertThat(cart.getItems()).hasSize(expectedLines);
+        BigDecimal sum = cart.getItems().values().stream()
+                .map(Cart.CartItem::getSubtotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(cart.getTotalAmount()).isEqualByComparingTo(sum);
+    }
+
+    private static Cart.CartItem item(long productId, String price, int quantity) {
+        BigDecimal unitPrice = new BigDecimal(price);
+        return Cart.CartItem.builder()
+                .productId(productId)
+                .productName("Product " + productId)
+                .price(unitPrice)
+                .quantity(quantity)
+                .subtotal(unitPrice.multiply(BigDecimal.valueOf(quantity)))
+                .build();
+    }
+}
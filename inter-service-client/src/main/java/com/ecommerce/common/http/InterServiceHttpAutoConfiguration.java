@@ -0,0 +1,105 @@
+package com.ecommerce.common.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.web.client.RestTemplateAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Locale;
+
+// RestTemplates built from the Boot RestTemplateBuilder are already observed, which
+// gives per-call latency as http.client.requests whenever actuator is on the classpath
+@AutoConfiguration(after = RestTemplateAutoConfiguration.class)
+@EnableConfigurationProperties(InterServiceHttpProperties.class)
+public class InterServiceHttpAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public PoolingHttpClientConnectionManager interServiceConnectionManager(InterServiceHttpProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxTotal())
+                .setMaxConnPerRoute(properties.getDefaultMaxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.getReadTimeout()))
+                        .setTimeToLive(TimeValue.of(properties.getConnectionTimeToLive()))
+                        .build())
+                .build();
+
+        properties.getMaxPerRoute().forEach((target, maxConnections) ->
+                connectionManager.setMaxPerRoute(route(target), maxConnections));
+
+        return connectionManager;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CloseableHttpClient interServiceHttpClient(PoolingHttpClientConnectionManager connectionManager,
+                                                      InterServiceHttpProperties properties) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(properties.getConnectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.of(properties.getReadTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.getIdleTimeout()))
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder, CloseableHttpClient interServiceHttpClient) {
+        return restTemplateBuilder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(interServiceHttpClient))
+                .build();
+    }
+
+    // Built the way the client plans routes at request time, scheme default port included, so the limit is found
+    private static HttpRoute route(String key) {
+        String url = key.contains("://") ? key : "http://" + key;
+        try {
+            URI uri = new URI(url);
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                throw new IllegalArgumentException("Invalid inter-service route: " + key);
+            }
+            String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            boolean secure = "https".equals(scheme);
+            int port = uri.getPort() != -1 ? uri.getPort() : (secure ? 443 : 80);
+            return new HttpRoute(new HttpHost(scheme, uri.getHost(), port), null, secure);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid inter-service route: " + key, e);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    static class PoolMetricsConfiguration {
+
+        @Bean
+        public MeterBinder interServiceConnectionPoolMetrics(PoolingHttpClientConnectionManager interServiceConnectionManager) {
+            return new PoolingHttpClientConnectionManagerMetricsBinder(interServiceConnectionManager, "inter-service");
+        }
+    }
+}
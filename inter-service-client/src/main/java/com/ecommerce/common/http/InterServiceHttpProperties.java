@@ -0,0 +1,33 @@
+package com.ecommerce.common.http;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "inter-service.http")
+public class InterServiceHttpProperties {
+    private int maxTotal = 200;
+    private int defaultMaxPerRoute = 50;
+
+    /**
+     * Per-route overrides keyed by target, as {@code scheme://host:port} or plain {@code host:port}
+     * (http assumed). A missing port means the scheme default, so {@code https://payments} is
+     * {@code https://payments:443}. The host must be spelled exactly as the calling service's base URL.
+     * Relaxed binding strips {@code :} and {@code /} from map keys, so keys must use bracket notation:
+     * <pre>
+     * inter-service.http.max-per-route:
+     *   "[http://localhost:8082]": 20
+     * </pre>
+     */
+    private Map<String, Integer> maxPerRoute = new HashMap<>();
+
+    private Duration connectTimeout = Duration.ofSeconds(1);
+    private Duration readTimeout = Duration.ofSeconds(3);
+    private Duration connectionRequestTimeout = Duration.ofMillis(500);
+    private Duration connectionTimeToLive = Duration.ofMinutes(5);
+    private Duration idleTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,67 @@
+package com.ecommerce.common.http;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.DefaultSchemePortResolver;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.routing.DefaultRoutePlanner;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InterServiceHttpAutoConfigurationTest {
+
+    private final DefaultRoutePlanner routePlanner = new DefaultRoutePlanner(DefaultSchemePortResolver.INSTANCE);
+
+    @Test
+    void bracketedKeysApplyToTheRoutesTheClientPlans() throws HttpException {
+        PoolingHttpClientConnectionManager connectionManager = connectionManager(Map.of(
+                "inter-service.http.max-per-route.[http://product-catalog:8082]", "20",
+                "inter-service.http.max-per-route.[inventory:8083]", "10",
+                "inter-service.http.max-per-route.[https://payments]", "5"));
+
+        assertThat(connectionManager.getMaxPerRoute(plannedRoute("http", "product-catalog", 8082))).isEqualTo(20);
+        assertThat(connectionManager.getMaxPerRoute(plannedRoute("http", "inventory", 8083))).isEqualTo(10);
+        // No port in the key means the scheme default, which is what the planner fills in too
+        assertThat(connectionManager.getMaxPerRoute(plannedRoute("https", "payments", -1))).isEqualTo(5);
+        assertThat(connectionManager.getMaxPerRoute(plannedRoute("http", "elsewhere", 8080))).isEqualTo(50);
+    }
+
+    @Test
+    void unbracketedKeysLoseTheirSeparators() {
+        InterServiceHttpProperties properties = bind(Map.of(
+                "inter-service.http.max-per-route.http://product-catalog:8082", "20"));
+
+        assertThat(properties.getMaxPerRoute()).doesNotContainKey("http://product-catalog:8082");
+    }
+
+    @Test
+    void rejectsKeysWithoutHost() {
+        InterServiceHttpProperties properties = new InterServiceHttpProperties();
+        properties.getMaxPerRoute().put("http://", 5);
+
+        assertThatThrownBy(() -> new InterServiceHttpAutoConfiguration().interServiceConnectionManager(properties))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private PoolingHttpClientConnectionManager connectionManager(Map<String, String> source) {
+        return new InterServiceHttpAutoConfiguration().interServiceConnectionManager(bind(source));
+    }
+
+    private static InterServiceHttpProperties bind(Map<String, String> source) {
+        return new Binder(new MapConfigurationPropertySource(source))
+                .bind("inter-service.http", InterServiceHttpProperties.class)
+                .orElseGet(InterServiceHttpProperties::new);
+    }
+
+    private HttpRoute plannedRoute(String scheme, String host, int port) throws HttpException {
+        return routePlanner.determineRoute(new HttpHost(scheme, host, port), HttpClientContext.create());
+    }
+}
@@ -0,0 +1,67 @@
+package com.ecommerce.order.client;
+
+import com.ecommerce.order.dto.ProductSummaryDto;
+import com.ecommerce.order.dto.StockConfirmationResultDto;
+import com.ecommerce.order.dto.StockReservationRequestDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductClient {
+
+    private final RestTemplate restTemplate;
+
+    @Value("${services.product-catalog.url:http://localhost:8082}")
+    private String productServiceUrl;
+
+    public Map<Long, ProductSummaryDto> getProducts(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+
+        ProductSummaryDto[] products = restTemplate.postForObject(
+                productServiceUrl + "/api/products/batch",
+                new LinkedHashSet<>(productIds),
+                ProductSummaryDto[].class);
+
+        if (products == null) {
+            return Map.of();
+        }
+
+        log.debug("Resolved {} of {} products in one batch call", products.length, productIds.size());
+
+        return Arrays.stream(products)
+                .collect(Collectors.toMap(ProductSummaryDto::getId, Function.identity()));
+    }
+
+    public void reserveStock(String reference, Map<Long, Integer> quantities) {
+        List<StockReservationRequestDto.ItemDto> items = quantities.entrySet().stream()
+                .map(entry -> new StockReservationRequestDto.ItemDto(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+
+        restTemplate.postForObject(productServiceUrl + "/api/stock-reservations",
+                new StockReservationRequestDto(reference, items), Void.class);
+    }
+
+    public StockConfirmationResultDto confirmReservations(Collection<String> references) {
+        return restTemplate.postForObject(productServiceUrl + "/api/stock-reservations/confirmations",
+                references, StockConfirmationResultDto.class);
+    }
+
+    public void releaseReservation(String reference) {
+        restTemplate.delete(productServiceUrl + "/api/stock-reservations/{reference}", reference);
+    }
+}
@@ -0,0 +1,45 @@
+package com.ecommerce.order.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Moves the table-backed id generators past ids that were assigned by AUTO_INCREMENT
+// before the entities switched to pooled ids, so new rows cannot collide with old ones.
+// Runs once all singletons exist, before the web server and Kafka listeners start taking orders.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdGeneratorInitializer implements SmartInitializingSingleton {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    // Each generator's pkColumnValue matches the table it feeds
+    private static final List<String> GENERATED_TABLES = List.of("orders", "order_items");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void afterSingletonsInstantiated() {
+        GENERATED_TABLES.forEach(table -> {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            long floor = maxId + ALLOCATION_SIZE + 1;
+
+            int updated = jdbcTemplate.update(
+                    "UPDATE id_generators SET next_val = GREATEST(next_val, ?) WHERE sequence_name = ?",
+                    floor, table);
+            if (updated == 0) {
+                jdbcTemplate.update("INSERT INTO id_generators (sequence_name, next_val) VALUES (?, ?)",
+                        table, floor);
+            }
+
+            log.debug("Id generator {} starts at or above {}", table, floor);
+        });
+    }
+}
@@ -1,29 +1,50 @@
 package com.ecommerce.order.controller;
 
+import com.ecommerce.order.dto.BulkOrderStatusUpdateDto;
 import com.ecommerce.order.dto.CreateOrderDto;
+import com.ecommerce.order.dto.CursorPageDto;
 import com.ecommerce.order.dto.OrderDto;
+import com.ecommerce.order.dto.OrderStatusUpdateResultDto;
 import com.ecommerce.order.dto.OrderTrackingDto;
 import com.ecommerce.order.entity.Order;
 import com.ecommerce.order.entity.OrderStatus;
 import com.ecommerce.order.entity.PaymentStatus;
+import com.ecommerce.order.service.OrderIdempotencyService;
 import com.ecommerce.order.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
 public class OrderController {
 
+    private static final int STATUS_EXPORT_CHUNK_SIZE = 500;
+
     private final OrderService orderService;
+    private final OrderIdempotencyService orderIdempotencyService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
-    public ResponseEntity<OrderDto> createOrder(@Valid @RequestBody CreateOrderDto createOrderDto) {
-        OrderDto order = orderService.createOrder(createOrderDto);
+    public ResponseEntity<OrderDto> createOrder(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody CreateOrderDto createOrderDto) {
+        OrderDto order = idempotencyKey != null
+                ? orderIdempotencyService.createOrder(idempotencyKey, createOrderDto)
+                : orderService.createOrder(createOrderDto);
         return ResponseEntity.status(HttpStatus.CREATED).body(order);
     }
 
@@ -48,6 +69,15 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    @GetMapping(value = "/users/{userId}", params = "after")
+    public ResponseEntity<CursorPageDto<OrderDto>> getUserOrdersAfter(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size) {
+        CursorPageDto<OrderDto> orders = orderService.getUserOrders(userId, after, size);
+        return ResponseEntity.ok(orders);
+    }
+
     @PutMapping("/{orderId}/status")
     public ResponseEntity<OrderDto> updateOrderStatus(
             @PathVariable Long orderId,
@@ -56,6 +86,43 @@ public class OrderController {
         return ResponseEntity.ok(order);
     }
 
+    @PutMapping("/status")
+    public ResponseEntity<List<OrderStatusUpdateResultDto>> updateOrderStatuses(
+            @Valid @RequestBody BulkOrderStatusUpdateDto bulkUpdateDto) {
+        List<OrderStatusUpdateResultDto> results = orderService.updateOrderStatuses(bulkUpdateDto);
+        return ResponseEntity.ok(results);
+    }
+
+    // One order per line, written chunk by chunk so neither side holds the whole result set
+    @GetMapping(value = "/status/{status}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportOrdersByStatus(@PathVariable OrderStatus status) {
+        StreamingResponseBody body = out -> {
+            try {
+                orderService.forEachOrderChunkByStatus(status, STATUS_EXPORT_CHUNK_SIZE, orders -> {
+                    try {
+                        for (OrderDto order : orders) {
+                            out.write(objectMapper.writeValueAsBytes(order));
+                            out.write('\n');
+                        }
+                        out.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @PostMapping("/fulfilment/claims")
+    public ResponseEntity<List<OrderDto>> claimOrdersForFulfilment(
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int batchSize) {
+        List<OrderDto> orders = orderService.claimOrdersForFulfilment(batchSize);
+        return ResponseEntity.ok(orders);
+    }
+
     @PutMapping("/number/{orderNumber}/payment-status")
     public ResponseEntity<OrderDto> updatePaymentStatus(
             @PathVariable String orderNumber,
@@ -0,0 +1,30 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.entity.OrderStatus;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BulkOrderStatusUpdateDto {
+    @NotEmpty(message = "Updates are required")
+    @Valid
+    private List<OrderStatusUpdateDto> updates;
+
+    @Data
+    public static class OrderStatusUpdateDto {
+        private Long orderId;
+        private String orderNumber;
+
+        @NotNull(message = "Status is required")
+        private OrderStatus status;
+
+        @AssertTrue(message = "Order ID or order number is required")
+        public boolean isOrderReferenced() {
+            return orderId != null || orderNumber != null;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusUpdateResultDto {
+    private Long orderId;
+    private String orderNumber;
+    private String status;
+    private Outcome outcome;
+
+    public enum Outcome {
+        UPDATED, UNCHANGED, NOT_FOUND
+    }
+}
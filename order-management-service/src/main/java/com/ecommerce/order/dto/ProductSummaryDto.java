@@ -0,0 +1,15 @@
+package com.ecommerce.order.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProductSummaryDto {
+    private Long id;
+    private String name;
+    private BigDecimal price;
+    private String status;
+    private Long version;
+}
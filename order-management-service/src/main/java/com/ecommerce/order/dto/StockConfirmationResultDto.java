@@ -0,0 +1,12 @@
+package com.ecommerce.order.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class StockConfirmationResultDto {
+    private List<String> notFound = new ArrayList<>();
+    private List<String> failed = new ArrayList<>();
+}
@@ -0,0 +1,56 @@
+package com.ecommerce.order.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_records")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord implements Persistable<String> {
+    @Id
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String response;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    // Always INSERT, never merge, so a concurrent duplicate key fails instead of overwriting
+    @Transient
+    private boolean persisted;
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.persisted = true;
+    }
+}
@@ -14,14 +14,20 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_created", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_orders_status", columnList = "status, id"),
+        @Index(name = "idx_orders_stock_confirmation", columnList = "stock_confirmation, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_id_generator")
+    @TableGenerator(name = "order_id_generator", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "orders", allocationSize = 50)
     private Long id;
 
     @Column(name = "order_number", unique = true)
@@ -49,6 +55,11 @@ public class Order {
     @Enumerated(EnumType.STRING)
     private PaymentStatus paymentStatus;
 
+    // Null until payment completes; orders are never rolled back over a stock confirmation problem
+    @Column(name = "stock_confirmation")
+    @Enumerated(EnumType.STRING)
+    private StockConfirmation stockConfirmation;
+
     @CreationTimestamp
     @Column(name = "created_at")
     private LocalDateTime createdAt;
@@ -16,7 +16,9 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 public class OrderItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_item_id_generator")
+    @TableGenerator(name = "order_item_id_generator", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "order_items", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,24 @@
+package com.ecommerce.order.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Highest order number timestamp a node may issue before it has to extend the lease
+@Entity
+@Table(name = "order_number_leases")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderNumberLease {
+    @Id
+    @Column(name = "node_id")
+    private Long nodeId;
+
+    // Epoch milliseconds
+    @Column(name = "leased_until", nullable = false)
+    private Long leasedUntil;
+}
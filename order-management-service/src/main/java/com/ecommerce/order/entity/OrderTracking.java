@@ -0,0 +1,34 @@
+package com.ecommerce.order.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "order_tracking")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderTracking {
+    @Id
+    @Column(name = "order_number")
+    private String orderNumber;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Column(name = "payment_status")
+    @Enumerated(EnumType.STRING)
+    private PaymentStatus paymentStatus;
+
+    @Column(name = "estimated_delivery")
+    private String estimatedDelivery;
+
+    @Column(name = "last_updated")
+    private LocalDateTime lastUpdated;
+}
@@ -0,0 +1,6 @@
+package com.ecommerce.order.entity;
+
+// Whether the stock reserved for a paid order has been confirmed with the catalog; FAILED needs manual handling
+public enum StockConfirmation {
+    PENDING, CONFIRMED, FAILED
+}
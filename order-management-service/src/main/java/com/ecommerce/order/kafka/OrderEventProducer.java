@@ -2,23 +2,32 @@
 package com.ecommerce.order.kafka;
 
 import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderStatus;
+import com.ecommerce.order.entity.OutboxEvent;
+import com.ecommerce.order.repository.OrderStatusView;
+import com.ecommerce.order.repository.OutboxEventRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+// Events are written to the outbox in the caller's transaction and published by OutboxRelay
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Transactional(propagation = Propagation.MANDATORY)
 public class OrderEventProducer {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final OutboxEventRepository outboxEventRepository;
     private final ObjectMapper objectMapper;
 
     public void sendOrderCreatedEvent(Order order) {
@@ -32,10 +41,20 @@ public class OrderEventProducer {
             event.put("paymentMethod", order.getPaymentMethod());
             event.put("timestamp", LocalDateTime.now());
 
+            // Lets cart-service take exactly these lines out of the cart rather than clearing it
+            List<Map<String, Object>> items = new ArrayList<>();
+            order.getOrderItems().forEach(item -> {
+                Map<String, Object> line = new HashMap<>();
+                line.put("productId", item.getProductId());
+                line.put("quantity", item.getQuantity());
+                items.add(line);
+            });
+            event.put("items", items);
+
             String message = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send("order-events", order.getOrderNumber(), message);
+            enqueue("order-events", order.getOrderNumber(), message);
 
-            log.info("Order created event sent for order: {}", order.getOrderNumber());
+            log.info("Order created event queued for order: {}", order.getOrderNumber());
         } catch (JsonProcessingException e) {
             log.error("Error sending order created event", e);
         }
@@ -43,40 +62,90 @@ public class OrderEventProducer {
 
     public void sendOrderStatusUpdatedEvent(Order order) {
         try {
-            Map<String, Object> event = new HashMap<>();
-            event.put("eventType", "ORDER_STATUS_UPDATED");
-            event.put("orderId", order.getId());
-            event.put("orderNumber", order.getOrderNumber());
-            event.put("userId", order.getUserId());
-            event.put("status", order.getStatus().toString());
-            event.put("timestamp", LocalDateTime.now());
-
-            String message = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send("order-events", order.getOrderNumber(), message);
+            String message = objectMapper.writeValueAsString(orderStatusUpdatedEvent(
+                    order.getId(), order.getOrderNumber(), order.getUserId(), order.getStatus()));
+            enqueue("order-events", order.getOrderNumber(), message);
 
-            log.info("Order status updated event sent for order: {}", order.getOrderNumber());
+            log.info("Order status updated event queued for order: {}", order.getOrderNumber());
         } catch (JsonProcessingException e) {
             log.error("Error sending order status updated event", e);
         }
     }
 
+    public void sendOrderStatusUpdatedEvents(List<OrderStatusView> orders, OrderStatus status) {
+        List<OutboxEvent> events = new ArrayList<>(orders.size());
+        for (OrderStatusView order : orders) {
+            try {
+                String message = objectMapper.writeValueAsString(orderStatusUpdatedEvent(
+                        order.getId(), order.getOrderNumber(), order.getUserId(), status));
+                events.add(outboxEvent("order-events", order.getOrderNumber(), message));
+            } catch (JsonProcessingException e) {
+                log.error("Error sending order status updated event for order: {}", order.getOrderNumber(), e);
+            }
+        }
+
+        outboxEventRepository.saveAll(events);
+        log.info("Order status updated events queued for {} orders", events.size());
+    }
+
     public void sendPaymentStatusUpdatedEvent(Order order) {
         try {
-            Map<String, Object> event = new HashMap<>();
-            event.put("eventType", "PAYMENT_STATUS_UPDATED");
-            event.put("orderId", order.getId());
-            event.put("orderNumber", order.getOrderNumber());
-            event.put("userId", order.getUserId());
-            event.put("paymentStatus", order.getPaymentStatus().toString());
-            event.put("totalAmount", order.getTotalAmount());
-            event.put("timestamp", LocalDateTime.now());
-
-            String message = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send("payment-events", order.getOrderNumber(), message);
+            String message = objectMapper.writeValueAsString(paymentStatusUpdatedEvent(order));
+            enqueue("payment-events", order.getOrderNumber(), message);
 
-            log.info("Payment status updated event sent for order: {}", order.getOrderNumber());
+            log.info("Payment status updated event queued for order: {}", order.getOrderNumber());
         } catch (JsonProcessingException e) {
             log.error("Error sending payment status updated event", e);
         }
     }
+
+    public void sendPaymentStatusUpdatedEvents(List<Order> orders) {
+        List<OutboxEvent> events = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            try {
+                String message = objectMapper.writeValueAsString(paymentStatusUpdatedEvent(order));
+                events.add(outboxEvent("payment-events", order.getOrderNumber(), message));
+            } catch (JsonProcessingException e) {
+                log.error("Error sending payment status updated event for order: {}", order.getOrderNumber(), e);
+            }
+        }
+
+        outboxEventRepository.saveAll(events);
+        log.info("Payment status updated events queued for {} orders", events.size());
+    }
+
+    private Map<String, Object> paymentStatusUpdatedEvent(Order order) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("eventType", "PAYMENT_STATUS_UPDATED");
+        event.put("orderId", order.getId());
+        event.put("orderNumber", order.getOrderNumber());
+        event.put("userId", order.getUserId());
+        event.put("paymentStatus", order.getPaymentStatus().toString());
+        event.put("totalAmount", order.getTotalAmount());
+        event.put("timestamp", LocalDateTime.now());
+        return event;
+    }
+
+    private Map<String, Object> orderStatusUpdatedEvent(Long orderId, String orderNumber, Long userId, OrderStatus status) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("eventType", "ORDER_STATUS_UPDATED");
+        event.put("orderId", orderId);
+        event.put("orderNumber", orderNumber);
+        event.put("userId", userId);
+        event.put("status", status.toString());
+        event.put("timestamp", LocalDateTime.now());
+        return event;
+    }
+
+    private void enqueue(String topic, String key, String message) {
+        outboxEventRepository.save(outboxEvent(topic, key, message));
+    }
+
+    private OutboxEvent outboxEvent(String topic, String key, String message) {
+        return OutboxEvent.builder()
+                .topic(topic)
+                .messageKey(key)
+                .payload(message)
+                .build();
+    }
 }
\ No newline at end of file
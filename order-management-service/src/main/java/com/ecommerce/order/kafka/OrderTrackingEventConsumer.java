@@ -0,0 +1,23 @@
+package com.ecommerce.order.kafka;
+
+import com.ecommerce.order.service.OrderTrackingService;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class OrderTrackingEventConsumer {
+
+    private final OrderTrackingService orderTrackingService;
+
+    // Drops tracking entries cached by every instance when any instance changes an order
+    @KafkaListener(
+            topics = {"order-events", "payment-events"},
+            groupId = "${spring.application.name}-tracking-${random.uuid}",
+            properties = "auto.offset.reset=latest")
+    public void onOrderEvent(ConsumerRecord<String, String> record) {
+        orderTrackingService.evict(record.key());
+    }
+}
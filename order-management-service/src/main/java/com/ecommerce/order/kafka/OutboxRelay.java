@@ -0,0 +1,129 @@
+package com.ecommerce.order.kafka;
+
+import com.ecommerce.order.entity.OutboxEvent;
+import com.ecommerce.order.repository.OutboxEventKeyView;
+import com.ecommerce.order.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Events are claimed in one short transaction and sent outside it, so a slow broker never holds row locks
+// and relays on other instances keep claiming around in-flight events instead of queueing behind them
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final Duration claimTimeout;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaTemplate<String, String> kafkaTemplate,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${order.outbox.batch-size:100}") int batchSize,
+                       @Value("${order.outbox.send-timeout:10s}") Duration sendTimeout,
+                       @Value("${order.outbox.claim-timeout:60s}") Duration claimTimeout) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.claimTimeout = claimTimeout;
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.poll-interval-ms:500}")
+    public void relay() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> claimNextBatch());
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+
+        // Hand the whole batch to the producer first so it can be sent in as few requests as possible
+        List<CompletableFuture<SendResult<String, String>>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            sends.add(kafkaTemplate.send(event.getTopic(), event.getMessageKey(), event.getPayload()));
+        }
+
+        // Only delete the acknowledged prefix so a failed event is retried before anything after it
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                sends.get(i).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                sentIds.add(batch.get(i).getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Error relaying outbox event {} to topic {}", batch.get(i).getId(), batch.get(i).getTopic(), e);
+                break;
+            }
+        }
+
+        // The rest is released for the next poll rather than left until its claim expires
+        List<Long> unsentIds = batch.subList(sentIds.size(), batch.size()).stream()
+                .map(OutboxEvent::getId)
+                .collect(Collectors.toList());
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                outboxEventRepository.deleteAllByIdInBatch(sentIds);
+            }
+            if (!unsentIds.isEmpty()) {
+                outboxEventRepository.updateClaimedUntil(unsentIds, null);
+            }
+        });
+        log.debug("Relayed {} of {} outbox events", sentIds.size(), batch.size());
+    }
+
+    private List<OutboxEvent> claimNextBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> candidates = outboxEventRepository.lockNextBatch(now, batchSize);
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+
+        // An event may only be sent once every earlier event with its key has been: a key whose earlier
+        // event is claimed by, or being locked by, another relay waits for a later poll
+        Set<Long> candidateIds = candidates.stream().map(OutboxEvent::getId).collect(Collectors.toSet());
+        Set<String> messageKeys = candidates.stream().map(OutboxEvent::getMessageKey).collect(Collectors.toSet());
+        Long maxId = candidates.get(candidates.size() - 1).getId();
+
+        Set<String> blockedKeys = new HashSet<>();
+        Set<Long> claimableIds = new HashSet<>();
+        for (OutboxEventKeyView view : outboxEventRepository.findKeyViewsByMessageKeyIn(messageKeys, maxId)) {
+            if (blockedKeys.contains(view.getMessageKey())) {
+                continue;
+            }
+            if (candidateIds.contains(view.getId())) {
+                claimableIds.add(view.getId());
+            } else {
+                blockedKeys.add(view.getMessageKey());
+            }
+        }
+
+        List<OutboxEvent> claimed = candidates.stream()
+                .filter(event -> claimableIds.contains(event.getId()))
+                .collect(Collectors.toList());
+        if (!claimed.isEmpty()) {
+            outboxEventRepository.updateClaimedUntil(claimableIds, now.plus(claimTimeout));
+        }
+        return claimed;
+    }
+}
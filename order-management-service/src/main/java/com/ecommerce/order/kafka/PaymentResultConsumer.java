@@ -0,0 +1,50 @@
+package com.ecommerce.order.kafka;
+
+import com.ecommerce.order.entity.PaymentStatus;
+import com.ecommerce.order.service.OrderService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentResultConsumer {
+
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+
+    // Each poll is applied in one transaction instead of one REST call per order
+    @KafkaListener(
+            topics = "payment-results",
+            groupId = "${spring.application.name}",
+            containerFactory = "batchKafkaListenerContainerFactory")
+    public void onPaymentResults(List<ConsumerRecord<String, String>> records) {
+        Map<String, PaymentStatus> paymentResults = new LinkedHashMap<>();
+        for (ConsumerRecord<String, String> record : records) {
+            try {
+                JsonNode event = objectMapper.readTree(record.value());
+                paymentResults.put(event.path("orderNumber").asText(),
+                        PaymentStatus.valueOf(event.path("paymentStatus").asText()));
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                log.error("Skipping unreadable payment result at offset {}", record.offset(), e);
+            }
+        }
+
+        if (paymentResults.isEmpty()) {
+            return;
+        }
+
+        int applied = orderService.applyPaymentResults(paymentResults);
+        log.info("Applied {} of {} payment results", applied, paymentResults.size());
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecommerce.order.kafka;
+
+import com.ecommerce.order.service.ProductSnapshot;
+import com.ecommerce.order.service.ProductSnapshotStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductEventConsumer {
+
+    private final ProductSnapshotStore productSnapshotStore;
+    private final ObjectMapper objectMapper;
+
+    // Every instance keeps its own snapshot, so each one needs its own consumer group
+    @KafkaListener(
+            topics = "product-events",
+            groupId = "${spring.application.name}-product-snapshot-${random.uuid}",
+            properties = "auto.offset.reset=latest")
+    public void onProductEvent(String message) {
+        try {
+            JsonNode event = objectMapper.readTree(message);
+            Long productId = event.get("productId").asLong();
+            long version = event.path("version").asLong(0L);
+
+            switch (event.get("eventType").asText()) {
+                case "PRODUCT_CREATED":
+                case "PRODUCT_UPDATED":
+                    productSnapshotStore.apply(ProductSnapshot.builder()
+                            .id(productId)
+                            .name(event.get("name").asText())
+                            .price(event.get("price").decimalValue())
+                            .status(event.path("status").asText(null))
+                            .version(version)
+                            .build());
+                    break;
+                case "PRODUCT_DELETED":
+                    productSnapshotStore.apply(ProductSnapshot.tombstone(productId, Long.MAX_VALUE));
+                    break;
+                default:
+                    log.debug("Ignoring product event: {}", event.get("eventType").asText());
+            }
+        } catch (JsonProcessingException e) {
+            log.error("Error processing product event", e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.OrderNumberLease;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OrderNumberLeaseRepository extends JpaRepository<OrderNumberLease, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM OrderNumberLease l WHERE l.nodeId = :nodeId")
+    Optional<OrderNumberLease> findByIdForUpdate(@Param("nodeId") Long nodeId);
+}
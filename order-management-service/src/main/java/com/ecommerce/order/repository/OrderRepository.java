@@ -2,17 +2,79 @@ package com.ecommerce.order.repository;
 
 import com.ecommerce.order.entity.Order;
 import com.ecommerce.order.entity.OrderStatus;
+import com.ecommerce.order.entity.StockConfirmation;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     Optional<Order> findByOrderNumber(String orderNumber);
+    List<Order> findByOrderNumberIn(Collection<String> orderNumbers);
     Page<Order> findByUserId(Long userId, Pageable pageable);
-    List<Order> findByStatus(OrderStatus status);
+
+    @Query(value = "SELECT o.id FROM Order o WHERE o.userId = :userId ORDER BY o.createdAt DESC, o.id DESC",
+           countQuery = "SELECT COUNT(o) FROM Order o WHERE o.userId = :userId")
+    Page<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o WHERE o.userId = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findFirstIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o WHERE o.userId = :userId " +
+           "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findIdsByUserIdBefore(@Param("userId") Long userId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.id IN :ids")
+    List<Order> findAllWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT o.id FROM Order o WHERE o.status = :status AND o.id > :afterId ORDER BY o.id")
+    List<Long> findIdsByStatusAfter(@Param("status") OrderStatus status,
+                                    @Param("afterId") Long afterId,
+                                    Pageable pageable);
+
+    // Rows locked by another worker are skipped, so concurrent claims never overlap
+    @Query(value = "SELECT id FROM orders WHERE status = :status ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<Long> lockNextIdsByStatus(@Param("status") String status, @Param("limit") int limit);
+
+    @Query(value = "SELECT id AS id, order_number AS orderNumber, user_id AS userId, status AS status " +
+                   "FROM orders WHERE id IN (:ids) FOR UPDATE", nativeQuery = true)
+    List<OrderStatusView> lockStatusViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "SELECT id AS id, order_number AS orderNumber, user_id AS userId, status AS status " +
+                   "FROM orders WHERE order_number IN (:orderNumbers) FOR UPDATE", nativeQuery = true)
+    List<OrderStatusView> lockStatusViewsByOrderNumberIn(@Param("orderNumbers") Collection<String> orderNumbers);
+
+    @Query("SELECT o.orderNumber FROM Order o WHERE o.stockConfirmation = :stockConfirmation " +
+           "AND o.updatedAt < :before ORDER BY o.id")
+    List<String> findOrderNumbersByStockConfirmation(@Param("stockConfirmation") StockConfirmation stockConfirmation,
+                                                     @Param("before") LocalDateTime before,
+                                                     Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.stockConfirmation = :to " +
+           "WHERE o.orderNumber IN :orderNumbers AND o.stockConfirmation = :from")
+    int updateStockConfirmation(@Param("orderNumbers") Collection<String> orderNumbers,
+                                @Param("from") StockConfirmation from,
+                                @Param("to") StockConfirmation to);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status, o.updatedAt = :updatedAt " +
+           "WHERE o.id IN :ids AND o.status <> :status")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids,
+                           @Param("status") OrderStatus status,
+                           @Param("updatedAt") LocalDateTime updatedAt);
 }
\ No newline at end of file
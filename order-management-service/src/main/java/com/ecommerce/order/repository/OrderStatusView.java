@@ -0,0 +1,10 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.OrderStatus;
+
+public interface OrderStatusView {
+    Long getId();
+    String getOrderNumber();
+    Long getUserId();
+    OrderStatus getStatus();
+}
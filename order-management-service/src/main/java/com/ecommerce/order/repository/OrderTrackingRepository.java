@@ -0,0 +1,45 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.OrderStatus;
+import com.ecommerce.order.entity.OrderTracking;
+import com.ecommerce.order.entity.PaymentStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface OrderTrackingRepository extends JpaRepository<OrderTracking, String> {
+
+    @Modifying
+    @Query("UPDATE OrderTracking t SET t.status = :status, t.lastUpdated = :lastUpdated " +
+           "WHERE t.orderNumber IN :orderNumbers")
+    int updateStatusByOrderNumberIn(@Param("orderNumbers") Collection<String> orderNumbers,
+                                    @Param("status") OrderStatus status,
+                                    @Param("lastUpdated") LocalDateTime lastUpdated);
+
+    @Modifying
+    @Query("UPDATE OrderTracking t SET t.status = :status, t.paymentStatus = :paymentStatus, " +
+           "t.lastUpdated = :lastUpdated WHERE t.orderNumber IN :orderNumbers")
+    int updatePaymentStatusByOrderNumberIn(@Param("orderNumbers") Collection<String> orderNumbers,
+                                           @Param("status") OrderStatus status,
+                                           @Param("paymentStatus") PaymentStatus paymentStatus,
+                                           @Param("lastUpdated") LocalDateTime lastUpdated);
+
+    // Backfill that tolerates a concurrent backfill of the same order: the loser's insert is a no-op
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO order_tracking (order_number, status, payment_status, estimated_delivery, last_updated) " +
+                   "VALUES (:orderNumber, :status, :paymentStatus, :estimatedDelivery, :lastUpdated) " +
+                   "ON DUPLICATE KEY UPDATE order_number = order_number", nativeQuery = true)
+    int insertIfAbsent(@Param("orderNumber") String orderNumber,
+                       @Param("status") String status,
+                       @Param("paymentStatus") String paymentStatus,
+                       @Param("estimatedDelivery") String estimatedDelivery,
+                       @Param("lastUpdated") LocalDateTime lastUpdated);
+}
@@ -0,0 +1,6 @@
+package com.ecommerce.order.repository;
+
+public interface OutboxEventKeyView {
+    Long getId();
+    String getMessageKey();
+}
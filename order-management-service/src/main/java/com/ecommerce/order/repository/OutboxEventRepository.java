@@ -0,0 +1,30 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Rows another relay is claiming right now are skipped rather than waited for
+    @Query(value = "SELECT * FROM outbox_events WHERE claimed_until IS NULL OR claimed_until < :now " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query("SELECT e.id AS id, e.messageKey AS messageKey FROM OutboxEvent e " +
+           "WHERE e.messageKey IN :messageKeys AND e.id <= :maxId ORDER BY e.id")
+    List<OutboxEventKeyView> findKeyViewsByMessageKeyIn(@Param("messageKeys") Collection<String> messageKeys,
+                                                        @Param("maxId") Long maxId);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.claimedUntil = :claimedUntil WHERE e.id IN :ids")
+    int updateClaimedUntil(@Param("ids") Collection<Long> ids, @Param("claimedUntil") LocalDateTime claimedUntil);
+}
@@ -0,0 +1,115 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.CreateOrderDto;
+import com.ecommerce.order.dto.OrderDto;
+import com.ecommerce.order.entity.IdempotencyRecord;
+import com.ecommerce.order.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+@Service
+@Slf4j
+public class OrderIdempotencyService {
+
+    private final OrderService orderService;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration retention;
+
+    // In-flight and recently completed requests; duplicates on this instance wait on the same future
+    private final Cache<String, CompletableFuture<OrderDto>> requests;
+
+    public OrderIdempotencyService(OrderService orderService,
+                                   IdempotencyRecordRepository idempotencyRecordRepository,
+                                   ObjectMapper objectMapper,
+                                   @Value("${order.idempotency.maximum-size:10000}") long maximumSize,
+                                   @Value("${order.idempotency.expire-after-write:10m}") Duration expireAfterWrite,
+                                   @Value("${order.idempotency.retention:24h}") Duration retention) {
+        this.orderService = orderService;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.retention = retention;
+        this.requests = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    public OrderDto createOrder(String idempotencyKey, CreateOrderDto createOrderDto) {
+        CompletableFuture<OrderDto> request = new CompletableFuture<>();
+        CompletableFuture<OrderDto> existing = requests.asMap().putIfAbsent(idempotencyKey, request);
+        if (existing != null) {
+            log.debug("Replaying order for idempotency key: {}", idempotencyKey);
+            return verifyUser(await(existing), createOrderDto);
+        }
+
+        try {
+            OrderDto order = idempotencyRecordRepository.findById(idempotencyKey)
+                    .map(this::readResponse)
+                    .orElseGet(() -> createOrReplay(idempotencyKey, createOrderDto));
+            request.complete(order);
+            return verifyUser(order, createOrderDto);
+        } catch (RuntimeException e) {
+            // Let the next retry execute again instead of replaying the failure
+            requests.asMap().remove(idempotencyKey, request);
+            request.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpiredRecords() {
+        int deleted = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+        log.debug("Purged {} expired idempotency records", deleted);
+    }
+
+    private OrderDto createOrReplay(String idempotencyKey, CreateOrderDto createOrderDto) {
+        try {
+            return orderService.createOrder(createOrderDto, idempotencyKey);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance claimed the key first; its transaction has committed by now
+            return idempotencyRecordRepository.findById(idempotencyKey)
+                    .map(this::readResponse)
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private OrderDto await(CompletableFuture<OrderDto> request) {
+        try {
+            return request.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private OrderDto verifyUser(OrderDto order, CreateOrderDto createOrderDto) {
+        if (!Objects.equals(order.getUserId(), createOrderDto.getUserId())) {
+            throw new RuntimeException("Idempotency key was already used for a different request");
+        }
+        return order;
+    }
+
+    private OrderDto readResponse(IdempotencyRecord record) {
+        try {
+            return objectMapper.readValue(record.getResponse(), OrderDto.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error reading stored order response", e);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.ecommerce.order.service;
+
+public interface OrderNumberGenerator {
+    String nextOrderNumber();
+}
@@ -1,11 +1,19 @@
 package com.ecommerce.order.service;
 
+import com.ecommerce.order.client.ProductClient;
+import com.ecommerce.order.dto.BulkOrderStatusUpdateDto;
 import com.ecommerce.order.dto.CreateOrderDto;
+import com.ecommerce.order.dto.CursorPageDto;
 import com.ecommerce.order.dto.OrderDto;
+import com.ecommerce.order.dto.OrderStatusUpdateResultDto;
 import com.ecommerce.order.dto.OrderTrackingDto;
 import com.ecommerce.order.entity.*;
 import com.ecommerce.order.kafka.OrderEventProducer;
+import com.ecommerce.order.repository.IdempotencyRecordRepository;
 import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderStatusView;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -13,13 +21,23 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 
 import java.math.BigDecimal;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,27 +45,58 @@ import java.util.stream.Collectors;
 @Slf4j
 public class OrderService {
 
+    private static final int BULK_CHUNK_SIZE = 500;
+    private static final int MAX_CLAIM_BATCH_SIZE = 500;
+
     private final OrderRepository orderRepository;
     private final OrderEventProducer orderEventProducer;
-    private final RestTemplate restTemplate;
+    private final ProductSnapshotStore productSnapshotStore;
+    private final ProductClient productClient;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final OrderTrackingService orderTrackingService;
+    private final StockConfirmationService stockConfirmationService;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
 
     @Transactional
     public OrderDto createOrder(CreateOrderDto createOrderDto) {
+        return createOrder(createOrderDto, null);
+    }
+
+    @Transactional
+    public OrderDto createOrder(CreateOrderDto createOrderDto, String idempotencyKey) {
+        IdempotencyRecord idempotencyRecord = null;
+        if (idempotencyKey != null) {
+            // Claim the key first so a duplicate on another instance blocks on this row until we commit
+            idempotencyRecord = idempotencyRecordRepository.saveAndFlush(IdempotencyRecord.builder()
+                    .idempotencyKey(idempotencyKey)
+                    .userId(createOrderDto.getUserId())
+                    .response("")
+                    .build());
+        }
+
+        // Resolve all products from the local snapshot, fetching only misses in one batch call
+        Map<Long, ProductSnapshot> products = getProductDetails(createOrderDto.getOrderItems().stream()
+                .map(CreateOrderDto.OrderItemCreateDto::getProductId)
+                .collect(Collectors.toList()));
+
         // Validate products and calculate total
         List<OrderItem> orderItems = createOrderDto.getOrderItems().stream()
                 .map(itemDto -> {
-                    Map<String, Object> productDetails = getProductDetails(itemDto.getProductId());
-                    if (productDetails == null) {
+                    ProductSnapshot product = products.get(itemDto.getProductId());
+                    if (product == null || product.isDeleted()) {
                         throw new RuntimeException("Product not found: " + itemDto.getProductId());
                     }
+                    if (!"ACTIVE".equals(product.getStatus())) {
+                        throw new RuntimeException("Product is not available: " + itemDto.getProductId());
+                    }
 
-                    String productName = (String) productDetails.get("name");
-                    BigDecimal price = new BigDecimal(productDetails.get("price").toString());
+                    BigDecimal price = product.getPrice();
                     BigDecimal subtotal = price.multiply(BigDecimal.valueOf(itemDto.getQuantity()));
 
                     return OrderItem.builder()
                             .productId(itemDto.getProductId())
-                            .productName(productName)
+                            .productName(product.getName())
                             .price(price)
                             .quantity(itemDto.getQuantity())
                             .subtotal(subtotal)
@@ -55,6 +104,10 @@ public class OrderService {
                 })
                 .collect(Collectors.toList());
 
+        // Hold the stock under the order number before anything is written
+        String orderNumber = orderNumberGenerator.nextOrderNumber();
+        reserveStock(orderNumber, orderItems);
+
         BigDecimal totalAmount = orderItems.stream()
                 .map(OrderItem::getSubtotal)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
@@ -73,7 +126,7 @@ public class OrderService {
 
         // Create order
         Order order = Order.builder()
-                .orderNumber(generateOrderNumber())
+                .orderNumber(orderNumber)
                 .userId(createOrderDto.getUserId())
                 .totalAmount(totalAmount)
                 .status(OrderStatus.PENDING)
@@ -87,16 +140,21 @@ public class OrderService {
         order.setOrderItems(orderItems);
 
         Order savedOrder = orderRepository.save(order);
+        orderTrackingService.project(savedOrder);
 
-        // Clear user's cart
-        clearUserCart(createOrderDto.getUserId());
-
-        // Send order created event
+        // Send order created event; cart-service removes the ordered lines from the user's cart when it consumes it
         orderEventProducer.sendOrderCreatedEvent(savedOrder);
 
-        return mapToOrderDto(savedOrder);
+        OrderDto orderDto = mapToOrderDto(savedOrder);
+        if (idempotencyRecord != null) {
+            idempotencyRecord.setOrderId(savedOrder.getId());
+            idempotencyRecord.setResponse(writeResponse(orderDto));
+        }
+
+        return orderDto;
     }
 
+    @Transactional(readOnly = true)
     public OrderDto getOrder(Long orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
@@ -104,6 +162,7 @@ public class OrderService {
         return mapToOrderDto(order);
     }
 
+    @Transactional(readOnly = true)
     public OrderDto getOrderByNumber(String orderNumber) {
         Order order = orderRepository.findByOrderNumber(orderNumber)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
@@ -111,11 +170,44 @@ public class OrderService {
         return mapToOrderDto(order);
     }
 
+    @Transactional(readOnly = true)
     public Page<OrderDto> getUserOrders(Long userId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Order> orders = orderRepository.findByUserId(userId, pageable);
 
-        return orders.map(this::mapToOrderDto);
+        // Page over ids only, then load those orders with their items in one statement
+        Page<Long> orderIds = orderRepository.findIdsByUserId(userId, pageable);
+        Map<Long, Order> orders = loadOrdersWithItems(orderIds.getContent());
+
+        return orderIds.map(orderId -> mapToOrderDto(orders.get(orderId)));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDto<OrderDto> getUserOrders(Long userId, String after, int size) {
+        // Keyset pagination: fetch one extra id to learn whether another page exists, no COUNT query
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Long> orderIds;
+        if (after == null || after.isEmpty()) {
+            orderIds = orderRepository.findFirstIdsByUserId(userId, limit);
+        } else {
+            PageCursor cursor = PageCursor.decode(after);
+            orderIds = orderRepository.findIdsByUserIdBefore(userId, cursor.createdAt(), cursor.id(), limit);
+        }
+
+        boolean hasMore = orderIds.size() > size;
+        List<Long> pageIds = hasMore ? orderIds.subList(0, size) : orderIds;
+        Map<Long, Order> orders = loadOrdersWithItems(pageIds);
+
+        List<OrderDto> content = pageIds.stream()
+                .map(orderId -> mapToOrderDto(orders.get(orderId)))
+                .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (hasMore) {
+            OrderDto last = content.get(content.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return new CursorPageDto<>(content, nextCursor, hasMore);
     }
 
     @Transactional
@@ -125,6 +217,10 @@ public class OrderService {
 
         order.setStatus(status);
         Order updatedOrder = orderRepository.save(order);
+        orderTrackingService.project(updatedOrder);
+        if (status == OrderStatus.CANCELLED) {
+            releaseStockAfterCommit(List.of(updatedOrder.getOrderNumber()));
+        }
 
         // Send order status update event
         orderEventProducer.sendOrderStatusUpdatedEvent(updatedOrder);
@@ -132,21 +228,140 @@ public class OrderService {
         return mapToOrderDto(updatedOrder);
     }
 
+    @Transactional
+    public List<OrderStatusUpdateResultDto> updateOrderStatuses(BulkOrderStatusUpdateDto bulkUpdateDto) {
+        List<BulkOrderStatusUpdateDto.OrderStatusUpdateDto> updates = bulkUpdateDto.getUpdates();
+
+        // Lock every referenced order up front so the outcomes reported below are exact
+        List<Long> orderIds = updates.stream()
+                .map(BulkOrderStatusUpdateDto.OrderStatusUpdateDto::getOrderId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        List<String> orderNumbers = updates.stream()
+                .filter(update -> update.getOrderId() == null)
+                .map(BulkOrderStatusUpdateDto.OrderStatusUpdateDto::getOrderNumber)
+                .distinct()
+                .collect(Collectors.toList());
+
+        Map<Long, OrderStatusView> ordersById = new HashMap<>();
+        Map<String, OrderStatusView> ordersByNumber = new HashMap<>();
+        for (List<Long> chunk : partition(orderIds)) {
+            orderRepository.lockStatusViewsByIdIn(chunk).forEach(view -> ordersById.put(view.getId(), view));
+        }
+        for (List<String> chunk : partition(orderNumbers)) {
+            orderRepository.lockStatusViewsByOrderNumberIn(chunk).forEach(view -> ordersByNumber.put(view.getOrderNumber(), view));
+        }
+
+        // Resolve one target per order; a later entry for the same order wins
+        List<OrderStatusUpdateResultDto> results = new ArrayList<>();
+        Map<Long, OrderStatusView> orders = new LinkedHashMap<>();
+        Map<Long, OrderStatus> targets = new HashMap<>();
+        for (BulkOrderStatusUpdateDto.OrderStatusUpdateDto update : updates) {
+            OrderStatusView order = update.getOrderId() != null
+                    ? ordersById.get(update.getOrderId())
+                    : ordersByNumber.get(update.getOrderNumber());
+
+            if (order == null) {
+                results.add(new OrderStatusUpdateResultDto(update.getOrderId(), update.getOrderNumber(),
+                        null, OrderStatusUpdateResultDto.Outcome.NOT_FOUND));
+            } else {
+                orders.put(order.getId(), order);
+                targets.put(order.getId(), update.getStatus());
+            }
+        }
+
+        Map<OrderStatus, List<OrderStatusView>> changes = new EnumMap<>(OrderStatus.class);
+        for (OrderStatusView order : orders.values()) {
+            OrderStatus target = targets.get(order.getId());
+            boolean changed = order.getStatus() != target;
+            if (changed) {
+                changes.computeIfAbsent(target, status -> new ArrayList<>()).add(order);
+            }
+            results.add(new OrderStatusUpdateResultDto(order.getId(), order.getOrderNumber(), target.toString(),
+                    changed ? OrderStatusUpdateResultDto.Outcome.UPDATED : OrderStatusUpdateResultDto.Outcome.UNCHANGED));
+        }
+
+        // One conditional UPDATE per target status and chunk instead of a load and save per order
+        LocalDateTime now = LocalDateTime.now();
+        changes.forEach((status, changedOrders) -> {
+            for (List<OrderStatusView> chunk : partition(changedOrders)) {
+                orderRepository.updateStatusByIdIn(
+                        chunk.stream().map(OrderStatusView::getId).collect(Collectors.toList()), status, now);
+                orderTrackingService.projectStatus(
+                        chunk.stream().map(OrderStatusView::getOrderNumber).collect(Collectors.toList()), status);
+            }
+            orderEventProducer.sendOrderStatusUpdatedEvents(changedOrders, status);
+            if (status == OrderStatus.CANCELLED) {
+                releaseStockAfterCommit(changedOrders.stream().map(OrderStatusView::getOrderNumber).collect(Collectors.toList()));
+            }
+        });
+
+        return results;
+    }
+
+    // Not transactional on purpose: each chunk runs in its own short persistence context,
+    // so memory stays constant however many orders have the status
+    public void forEachOrderChunkByStatus(OrderStatus status, int chunkSize, Consumer<List<OrderDto>> consumer) {
+        long afterId = 0L;
+        while (true) {
+            List<Long> orderIds = orderRepository.findIdsByStatusAfter(status, afterId, PageRequest.of(0, chunkSize));
+            if (orderIds.isEmpty()) {
+                return;
+            }
+
+            Map<Long, Order> orders = loadOrdersWithItems(orderIds);
+            consumer.accept(orderIds.stream()
+                    .map(orders::get)
+                    .filter(Objects::nonNull)
+                    .map(this::mapToOrderDto)
+                    .collect(Collectors.toList()));
+
+            afterId = orderIds.get(orderIds.size() - 1);
+        }
+    }
+
+    @Transactional
+    public List<OrderDto> claimOrdersForFulfilment(int batchSize) {
+        if (batchSize < 1 || batchSize > MAX_CLAIM_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch size must be between 1 and " + MAX_CLAIM_BATCH_SIZE);
+        }
+        List<Long> orderIds = orderRepository.lockNextIdsByStatus(OrderStatus.CONFIRMED.name(), batchSize);
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+
+        // Moving the claimed orders to PROCESSING is what keeps them out of the next worker's claim
+        orderRepository.updateStatusByIdIn(orderIds, OrderStatus.PROCESSING, LocalDateTime.now());
+        Map<Long, Order> orders = loadOrdersWithItems(orderIds);
+        List<Order> claimed = orderIds.stream()
+                .map(orders::get)
+                .collect(Collectors.toList());
+
+        orderTrackingService.projectStatus(
+                claimed.stream().map(Order::getOrderNumber).collect(Collectors.toList()), OrderStatus.PROCESSING);
+        claimed.forEach(orderEventProducer::sendOrderStatusUpdatedEvent);
+
+        return claimed.stream()
+                .map(this::mapToOrderDto)
+                .collect(Collectors.toList());
+    }
+
     @Transactional
     public OrderDto updatePaymentStatus(String orderNumber, PaymentStatus paymentStatus) {
         Order order = orderRepository.findByOrderNumber(orderNumber)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
-        order.setPaymentStatus(paymentStatus);
-
-        // Update order status based on payment status
+        applyPaymentStatus(order, paymentStatus);
         if (paymentStatus == PaymentStatus.COMPLETED) {
-            order.setStatus(OrderStatus.CONFIRMED);
+            // The payment commits regardless of the catalog; confirmation follows and is retried until it lands
+            stockConfirmationService.confirmAfterCommit(List.of(order));
         } else if (paymentStatus == PaymentStatus.FAILED) {
-            order.setStatus(OrderStatus.CANCELLED);
+            releaseStockAfterCommit(List.of(orderNumber));
         }
 
         Order updatedOrder = orderRepository.save(order);
+        orderTrackingService.project(updatedOrder);
 
         // Send payment status update event
         orderEventProducer.sendPaymentStatusUpdatedEvent(updatedOrder);
@@ -154,58 +369,135 @@ public class OrderService {
         return mapToOrderDto(updatedOrder);
     }
 
-    public OrderTrackingDto getOrderTracking(String orderNumber) {
-        Order order = orderRepository.findByOrderNumber(orderNumber)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
+    @Transactional
+    public int applyPaymentResults(Map<String, PaymentStatus> paymentResults) {
+        List<Order> orders = new ArrayList<>();
+        for (List<String> chunk : partition(new ArrayList<>(paymentResults.keySet()))) {
+            orders.addAll(orderRepository.findByOrderNumberIn(chunk));
+        }
 
-        OrderTrackingDto tracking = new OrderTrackingDto();
-        tracking.setOrderNumber(order.getOrderNumber());
-        tracking.setStatus(order.getStatus().toString());
-        tracking.setStatusDescription(getStatusDescription(order.getStatus()));
-        tracking.setLastUpdated(order.getUpdatedAt());
-        tracking.setEstimatedDelivery(calculateEstimatedDelivery(order));
+        // Only pending payments move, so redelivered or stale results are no-ops
+        Map<PaymentStatus, List<Order>> settled = new EnumMap<>(PaymentStatus.class);
+        for (Order order : orders) {
+            if (order.getPaymentStatus() != PaymentStatus.PENDING) {
+                continue;
+            }
+            PaymentStatus paymentStatus = paymentResults.get(order.getOrderNumber());
+            applyPaymentStatus(order, paymentStatus);
+            settled.computeIfAbsent(paymentStatus, status -> new ArrayList<>()).add(order);
+        }
 
-        return tracking;
+        // No remote call inside the listener's transaction: confirmation follows the commit and is retried
+        stockConfirmationService.confirmAfterCommit(settled.getOrDefault(PaymentStatus.COMPLETED, List.of()));
+        List<String> failed = settled.getOrDefault(PaymentStatus.FAILED, List.of()).stream()
+                .map(Order::getOrderNumber)
+                .collect(Collectors.toList());
+        if (!failed.isEmpty()) {
+            releaseStockAfterCommit(failed);
+        }
+
+        // Order rows are flushed as batched UPDATEs; tracking and events are written per status group
+        settled.forEach((paymentStatus, changedOrders) -> {
+            changedOrders.stream()
+                    .collect(Collectors.groupingBy(Order::getStatus, () -> new EnumMap<>(OrderStatus.class),
+                            Collectors.mapping(Order::getOrderNumber, Collectors.toList())))
+                    .forEach((status, orderNumbers) -> partition(orderNumbers).forEach(chunk ->
+                            orderTrackingService.projectPayment(chunk, status, paymentStatus)));
+            orderEventProducer.sendPaymentStatusUpdatedEvents(changedOrders);
+        });
+
+        return settled.values().stream().mapToInt(List::size).sum();
     }
 
-    private String generateOrderNumber() {
-        return "ORD-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    public OrderTrackingDto getOrderTracking(String orderNumber) {
+        return orderTrackingService.getTracking(orderNumber);
     }
 
-    private Map<String, Object> getProductDetails(Long productId) {
+    private String writeResponse(OrderDto orderDto) {
         try {
-            String productServiceUrl = "http://localhost:8082/api/products/" + productId;
-            return restTemplate.getForObject(productServiceUrl, Map.class);
-        } catch (Exception e) {
-            log.error("Error fetching product details for productId: {}", productId, e);
-            return null;
+            return objectMapper.writeValueAsString(orderDto);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error storing order response", e);
         }
     }
 
-    private void clearUserCart(Long userId) {
+    private Map<Long, ProductSnapshot> getProductDetails(List<Long> productIds) {
         try {
-            String cartServiceUrl = "http://localhost:8083/api/cart/users/" + userId;
-            restTemplate.delete(cartServiceUrl);
+            return productSnapshotStore.getAll(productIds);
         } catch (Exception e) {
-            log.error("Error clearing cart for user: {}", userId, e);
+            log.error("Error fetching product details for productIds: {}", productIds, e);
+            return Map.of();
+        }
+    }
+
+    private static void applyPaymentStatus(Order order, PaymentStatus paymentStatus) {
+        order.setPaymentStatus(paymentStatus);
+
+        // Update order status based on payment status
+        if (paymentStatus == PaymentStatus.COMPLETED) {
+            order.setStatus(OrderStatus.CONFIRMED);
+        } else if (paymentStatus == PaymentStatus.FAILED) {
+            order.setStatus(OrderStatus.CANCELLED);
+        }
+    }
+
+    private void reserveStock(String orderNumber, List<OrderItem> orderItems) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        orderItems.forEach(item -> quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+
+        // Hand the stock back straight away if the order itself never commits. Registered before the call,
+        // since a timed-out request may still have reserved on the catalog side.
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    releaseStock(orderNumber);
+                }
+            }
+        });
+
+        try {
+            productClient.reserveStock(orderNumber, quantities);
+        } catch (HttpClientErrorException.Conflict e) {
+            throw new RuntimeException("Insufficient stock for order items");
+        } catch (RestClientException e) {
+            log.error("Stock reservation unavailable for order {}", orderNumber, e);
+            throw new RuntimeException("Stock reservation is temporarily unavailable, please retry");
         }
     }
 
-    private String getStatusDescription(OrderStatus status) {
-        switch (status) {
-            case PENDING: return "Order is being processed";
-            case CONFIRMED: return "Order has been confirmed";
-            case PROCESSING: return "Order is being prepared";
-            case SHIPPED: return "Order has been shipped";
-            case DELIVERED: return "Order has been delivered";
-            case CANCELLED: return "Order has been cancelled";
-            default: return "Unknown status";
+    private void releaseStockAfterCommit(List<String> orderNumbers) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                orderNumbers.forEach(OrderService.this::releaseStock);
+            }
+        });
+    }
+
+    private void releaseStock(String orderNumber) {
+        try {
+            productClient.releaseReservation(orderNumber);
+        } catch (RestClientException e) {
+            log.error("Error releasing stock reservation for order: {}", orderNumber, e);
         }
     }
 
-    private String calculateEstimatedDelivery(Order order) {
-        // Simple estimation logic - can be enhanced based on shipping method, location, etc.
-        return order.getCreatedAt().plusDays(7).format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+    private static <T> List<List<T>> partition(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += BULK_CHUNK_SIZE) {
+            chunks.add(items.subList(i, Math.min(i + BULK_CHUNK_SIZE, items.size())));
+        }
+        return chunks;
+    }
+
+    private Map<Long, Order> loadOrdersWithItems(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return orderRepository.findAllWithItemsByIdIn(orderIds).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
     }
 
     private OrderDto mapToOrderDto(Order order) {
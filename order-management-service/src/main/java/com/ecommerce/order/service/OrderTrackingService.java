@@ -0,0 +1,160 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.OrderTrackingDto;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderStatus;
+import com.ecommerce.order.entity.OrderTracking;
+import com.ecommerce.order.entity.PaymentStatus;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderTrackingRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+
+@Service
+@Slf4j
+public class OrderTrackingService {
+
+    private final OrderTrackingRepository orderTrackingRepository;
+    private final OrderRepository orderRepository;
+    private final Cache<String, OrderTrackingDto> trackingCache;
+    // Order numbers that matched no order; polling a bogus number would otherwise cost two reads every time
+    private final Cache<String, Boolean> unknownOrderCache;
+
+    public OrderTrackingService(OrderTrackingRepository orderTrackingRepository,
+                                OrderRepository orderRepository,
+                                @Value("${order.tracking-cache.maximum-size:100000}") long maximumSize,
+                                @Value("${order.tracking-cache.expire-after-write:30s}") Duration expireAfterWrite,
+                                @Value("${order.tracking-cache.unknown-maximum-size:10000}") long unknownMaximumSize,
+                                @Value("${order.tracking-cache.unknown-expire-after-write:5s}") Duration unknownExpireAfterWrite) {
+        this.orderTrackingRepository = orderTrackingRepository;
+        this.orderRepository = orderRepository;
+        this.trackingCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+        this.unknownOrderCache = Caffeine.newBuilder()
+                .maximumSize(unknownMaximumSize)
+                .expireAfterWrite(unknownExpireAfterWrite)
+                .build();
+    }
+
+    public OrderTrackingDto getTracking(String orderNumber) {
+        if (unknownOrderCache.getIfPresent(orderNumber) != null) {
+            throw new RuntimeException("Order not found");
+        }
+        return trackingCache.get(orderNumber, this::loadTracking);
+    }
+
+    // Called inside the transaction that changed the order; the cache is refreshed once it commits
+    public void project(Order order) {
+        OrderTracking tracking = orderTrackingRepository.save(toTracking(order));
+        OrderTrackingDto dto = mapToTrackingDto(tracking);
+
+        afterCommit(() -> {
+            unknownOrderCache.invalidate(dto.getOrderNumber());
+            trackingCache.put(dto.getOrderNumber(), dto);
+        });
+    }
+
+    // Bulk counterpart of project(Order); orders without a projection row are backfilled on first poll
+    public void projectStatus(Collection<String> orderNumbers, OrderStatus status) {
+        orderTrackingRepository.updateStatusByOrderNumberIn(orderNumbers, status, LocalDateTime.now());
+
+        afterCommit(() -> trackingCache.invalidateAll(orderNumbers));
+    }
+
+    public void projectPayment(Collection<String> orderNumbers, OrderStatus status, PaymentStatus paymentStatus) {
+        orderTrackingRepository.updatePaymentStatusByOrderNumberIn(orderNumbers, status, paymentStatus, LocalDateTime.now());
+
+        afterCommit(() -> trackingCache.invalidateAll(orderNumbers));
+    }
+
+    public void evict(String orderNumber) {
+        trackingCache.invalidate(orderNumber);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private OrderTrackingDto loadTracking(String orderNumber) {
+        OrderTracking tracking = orderTrackingRepository.findById(orderNumber)
+                .orElseGet(() -> backfillTracking(orderNumber));
+
+        return mapToTrackingDto(tracking);
+    }
+
+    // Orders placed before the projection existed are backfilled on first poll
+    private OrderTracking backfillTracking(String orderNumber) {
+        Order order = orderRepository.findByOrderNumber(orderNumber).orElse(null);
+        if (order == null) {
+            unknownOrderCache.put(orderNumber, Boolean.TRUE);
+            throw new RuntimeException("Order not found");
+        }
+
+        log.debug("Backfilling tracking projection for order: {}", orderNumber);
+        OrderTracking tracking = toTracking(order);
+        // Concurrent first polls race to insert; whichever row won is read back
+        orderTrackingRepository.insertIfAbsent(tracking.getOrderNumber(), tracking.getStatus().name(),
+                tracking.getPaymentStatus() != null ? tracking.getPaymentStatus().name() : null,
+                tracking.getEstimatedDelivery(), tracking.getLastUpdated());
+
+        return orderTrackingRepository.findById(orderNumber)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+    }
+
+    private OrderTracking toTracking(Order order) {
+        LocalDateTime createdAt = order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now();
+
+        return OrderTracking.builder()
+                .orderNumber(order.getOrderNumber())
+                .status(order.getStatus())
+                .paymentStatus(order.getPaymentStatus())
+                // Simple estimation logic - can be enhanced based on shipping method, location, etc.
+                .estimatedDelivery(createdAt.plusDays(7).format(DateTimeFormatter.ofPattern("yyyy-MM-dd")))
+                .lastUpdated(LocalDateTime.now())
+                .build();
+    }
+
+    private OrderTrackingDto mapToTrackingDto(OrderTracking tracking) {
+        OrderTrackingDto dto = new OrderTrackingDto();
+        dto.setOrderNumber(tracking.getOrderNumber());
+        dto.setStatus(tracking.getStatus().toString());
+        dto.setStatusDescription(getStatusDescription(tracking.getStatus()));
+        dto.setLastUpdated(tracking.getLastUpdated());
+        dto.setEstimatedDelivery(tracking.getEstimatedDelivery());
+        return dto;
+    }
+
+    private String getStatusDescription(OrderStatus status) {
+        switch (status) {
+            case PENDING: return "Order is being processed";
+            case CONFIRMED: return "Order has been confirmed";
+            case PROCESSING: return "Order is being prepared";
+            case SHIPPED: return "Order has been shipped";
+            case DELIVERED: return "Order has been delivered";
+            case CANCELLED: return "Order has been cancelled";
+            default: return "Unknown status";
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.ProductSummaryDto;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+@Value
+@Builder
+public class ProductSnapshot {
+    Long id;
+    String name;
+    BigDecimal price;
+    String status;
+    long version;
+    boolean deleted;
+
+    public static ProductSnapshot from(ProductSummaryDto product) {
+        return ProductSnapshot.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .price(product.getPrice())
+                .status(product.getStatus())
+                .version(product.getVersion() != null ? product.getVersion() : 0L)
+                .build();
+    }
+
+    public static ProductSnapshot tombstone(Long id, long version) {
+        return ProductSnapshot.builder()
+                .id(id)
+                .version(version)
+                .deleted(true)
+                .build();
+    }
+}
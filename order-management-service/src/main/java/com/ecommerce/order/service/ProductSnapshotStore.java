@@ -0,0 +1,66 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.client.ProductClient;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Slf4j
+public class ProductSnapshotStore {
+
+    private final ProductClient productClient;
+    private final Cache<Long, ProductSnapshot> snapshots;
+
+    public ProductSnapshotStore(ProductClient productClient,
+                                @Value("${order.product-cache.maximum-size:10000}") long maximumSize,
+                                @Value("${order.product-cache.expire-after-write:1h}") Duration expireAfterWrite) {
+        this.productClient = productClient;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    public Map<Long, ProductSnapshot> getAll(Collection<Long> productIds) {
+        Map<Long, ProductSnapshot> result = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+
+        for (Long productId : new LinkedHashSet<>(productIds)) {
+            ProductSnapshot snapshot = snapshots.getIfPresent(productId);
+            if (snapshot == null) {
+                misses.add(productId);
+            } else if (!snapshot.isDeleted()) {
+                result.put(productId, snapshot);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            log.debug("Product snapshot miss for {} of {} products, fetching from catalog", misses.size(), productIds.size());
+            productClient.getProducts(misses).values().forEach(product -> {
+                ProductSnapshot snapshot = apply(ProductSnapshot.from(product));
+                if (!snapshot.isDeleted()) {
+                    result.put(snapshot.getId(), snapshot);
+                }
+            });
+        }
+
+        return result;
+    }
+
+    public ProductSnapshot apply(ProductSnapshot snapshot) {
+        // Never let an older version (e.g. a slow HTTP fetch) overwrite a newer event
+        return snapshots.asMap().merge(snapshot.getId(), snapshot,
+                (current, incoming) -> incoming.getVersion() >= current.getVersion() ? incoming : current);
+    }
+}
@@ -0,0 +1,109 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.OrderNumberLease;
+import com.ecommerce.order.repository.OrderNumberLeaseRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 41 bits of milliseconds since 2024-01-01, 10 bits of node id and a 12 bit sequence, rendered as
+// fixed-width base 36 so order numbers sort by creation time. Every instance needs its own node id.
+// Timestamps are only issued under a lease persisted per node, so a restart (or a clock that went
+// backwards) resumes after everything the previous run could have issued instead of repeating it.
+@Component
+public class SnowflakeOrderNumberGenerator implements OrderNumberGenerator, SmartInitializingSingleton {
+
+    private static final long EPOCH = 1704067200000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int ENCODED_LENGTH = 13;
+
+    private final long nodeId;
+    private final long leaseMillis;
+    private final OrderNumberLeaseRepository orderNumberLeaseRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Last issued (timestamp << SEQUENCE_BITS | sequence)
+    private final AtomicLong state = new AtomicLong();
+
+    // Timestamps up to and including this one are covered by the persisted lease
+    private volatile long leasedUntil = -1;
+
+    public SnowflakeOrderNumberGenerator(@Value("${order.number.node-id:#{null}}") Long nodeId,
+                                         @Value("${order.number.clock-lease:10s}") Duration clockLease,
+                                         OrderNumberLeaseRepository orderNumberLeaseRepository,
+                                         PlatformTransactionManager transactionManager) {
+        // Two instances sharing a node id would issue the same order numbers, so there is no default
+        if (nodeId == null) {
+            throw new IllegalArgumentException("order.number.node-id (ORDER_NODE_ID) must be set");
+        }
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("order.number.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+        this.leaseMillis = clockLease.toMillis();
+        this.orderNumberLeaseRepository = orderNumberLeaseRepository;
+        // The lease must be durable before any id it covers is handed out, whatever the caller's transaction does
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Runs before the server takes orders: nothing is issued until the previous run's lease is known
+    @Override
+    public void afterSingletonsInstantiated() {
+        extendLease(System.currentTimeMillis() - EPOCH);
+    }
+
+    @Override
+    public String nextOrderNumber() {
+        long now = System.currentTimeMillis() - EPOCH;
+
+        // A sequence overflow or a clock step backwards simply borrows the next millisecond,
+        // so the state only ever moves forward and no thread has to wait
+        long next = state.updateAndGet(previous -> Math.max(now << SEQUENCE_BITS, previous + 1));
+
+        long timestamp = next >>> SEQUENCE_BITS;
+        if (timestamp > leasedUntil) {
+            extendLease(timestamp);
+        }
+        long sequence = next & SEQUENCE_MASK;
+        long id = (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+
+        return "ORD-" + encode(id);
+    }
+
+    private synchronized void extendLease(long timestamp) {
+        if (timestamp <= leasedUntil) {
+            return;
+        }
+        long previous = transactionTemplate.execute(status -> {
+            OrderNumberLease lease = orderNumberLeaseRepository.findByIdForUpdate(nodeId)
+                    .orElseGet(() -> OrderNumberLease.builder().nodeId(nodeId).leasedUntil(EPOCH - 1).build());
+            long previousUntil = lease.getLeasedUntil() - EPOCH;
+            lease.setLeasedUntil(Math.max(timestamp, previousUntil + 1) + leaseMillis + EPOCH);
+            orderNumberLeaseRepository.save(lease);
+            return previousUntil;
+        });
+
+        // Everything up to the previous lease may already have been issued, by this run or an earlier one
+        state.accumulateAndGet((previous << SEQUENCE_BITS) | SEQUENCE_MASK, Math::max);
+        leasedUntil = Math.max(timestamp, previous + 1) + leaseMillis;
+    }
+
+    private static String encode(long id) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = Character.toUpperCase(Character.forDigit((int) (id % 36), 36));
+            id /= 36;
+        }
+        return new String(chars);
+    }
+}
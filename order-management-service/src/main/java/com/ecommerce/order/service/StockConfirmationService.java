@@ -0,0 +1,127 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.client.ProductClient;
+import com.ecommerce.order.dto.StockConfirmationResultDto;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.StockConfirmation;
+import com.ecommerce.order.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Confirms the stock reservations of paid orders outside the payment transaction. The order row records
+// PENDING durably with the payment, so a catalog outage only delays confirmation: retryPending() picks the
+// order up again. Lapsed reservations the catalog could not re-take are flagged FAILED for manual handling.
+@Service
+@Slf4j
+public class StockConfirmationService {
+
+    private final OrderRepository orderRepository;
+    private final ProductClient productClient;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retryAfter;
+    private final int batchSize;
+
+    public StockConfirmationService(OrderRepository orderRepository,
+                                    ProductClient productClient,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${order.stock-confirmation.retry-after:30s}") Duration retryAfter,
+                                    @Value("${order.stock-confirmation.batch-size:100}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.productClient = productClient;
+        this.retryAfter = retryAfter;
+        this.batchSize = batchSize;
+        // Runs after the payment transaction has committed, so the outcome needs a transaction of its own
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Must run inside the payment transaction; the catalog is only called once it has committed
+    public void confirmAfterCommit(Collection<Order> orders) {
+        List<String> orderNumbers = new ArrayList<>();
+        for (Order order : orders) {
+            if (order.getStockConfirmation() == null) {
+                order.setStockConfirmation(StockConfirmation.PENDING);
+                orderNumbers.add(order.getOrderNumber());
+            }
+        }
+        if (orderNumbers.isEmpty()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    confirm(orderNumbers);
+                } catch (RuntimeException e) {
+                    log.error("Stock confirmation for orders {} failed, will retry", orderNumbers, e);
+                }
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${order.stock-confirmation.retry-interval-ms:30000}")
+    public void retryPending() {
+        List<String> orderNumbers = orderRepository.findOrderNumbersByStockConfirmation(StockConfirmation.PENDING,
+                LocalDateTime.now().minus(retryAfter), PageRequest.of(0, batchSize));
+        if (!orderNumbers.isEmpty()) {
+            log.info("Retrying stock confirmation for {} paid orders", orderNumbers.size());
+            confirm(orderNumbers);
+        }
+    }
+
+    private void confirm(List<String> orderNumbers) {
+        for (int i = 0; i < orderNumbers.size(); i += batchSize) {
+            List<String> chunk = orderNumbers.subList(i, Math.min(i + batchSize, orderNumbers.size()));
+            StockConfirmationResultDto result;
+            try {
+                result = productClient.confirmReservations(chunk);
+            } catch (RestClientException e) {
+                log.warn("Stock confirmation for {} orders failed, will retry: {}", chunk.size(), e.getMessage());
+                continue;
+            }
+
+            // A missing reservation means the order predates reservations: there is nothing to confirm
+            Set<String> failed = result != null ? new HashSet<>(result.getFailed()) : Set.of();
+            List<String> confirmed = chunk.stream()
+                    .filter(orderNumber -> !failed.contains(orderNumber))
+                    .collect(Collectors.toList());
+            record(confirmed, new ArrayList<>(failed));
+        }
+    }
+
+    private void record(List<String> confirmed, List<String> failed) {
+        if (confirmed.isEmpty() && failed.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!confirmed.isEmpty()) {
+                orderRepository.updateStockConfirmation(confirmed, StockConfirmation.PENDING, StockConfirmation.CONFIRMED);
+            }
+            if (!failed.isEmpty()) {
+                orderRepository.updateStockConfirmation(failed, StockConfirmation.PENDING, StockConfirmation.FAILED);
+            }
+        });
+        if (!failed.isEmpty()) {
+            log.error("Paid orders lost their stock reservation and need manual handling: {}", failed);
+        }
+    }
+}
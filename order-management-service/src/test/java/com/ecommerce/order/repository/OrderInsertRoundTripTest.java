@@ -0,0 +1,129 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+import com.ecommerce.order.entity.OrderStatus;
+import com.ecommerce.order.entity.PaymentStatus;
+import com.ecommerce.order.entity.ShippingAddress;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Measures what saving one order costs on the wire: MySQL's global Questions counter sees every statement
+// from every connection, including the id allocations the table generator runs on its own connection
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderInsertRoundTripTest {
+
+    private static final int[] ITEM_COUNTS = {1, 10, 100};
+    private static final int WARMUP_ORDERS = 5;
+    private static final int MEASURED_ORDERS = 20;
+
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+            .withUrlParam("rewriteBatchedStatements", "true");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+    }
+
+    private final AtomicInteger orderSequence = new AtomicInteger();
+
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void roundTripsStayFlatAsItemCountGrows() {
+        Map<Integer, Double> roundTrips = new LinkedHashMap<>();
+        for (int itemCount : ITEM_COUNTS) {
+            for (int i = 0; i < WARMUP_ORDERS; i++) {
+                orderRepository.save(order(itemCount));
+            }
+
+            // Reading the counter is a statement itself; measure that once and take it off
+            long first = questions();
+            long counterOverhead = questions() - first;
+            long before = questions();
+            long started = System.nanoTime();
+            for (int i = 0; i < MEASURED_ORDERS; i++) {
+                orderRepository.save(order(itemCount));
+            }
+            long elapsed = System.nanoTime() - started;
+            long after = questions();
+
+            double perOrder = (double) (after - before - counterOverhead) / MEASURED_ORDERS;
+            roundTrips.put(itemCount, perOrder);
+            System.out.printf("items=%-4d round trips/order=%6.2f  latency/order=%8.3f ms%n",
+                    itemCount, perOrder, elapsed / 1_000_000.0 / MEASURED_ORDERS);
+        }
+
+        assertThat(orderRepository.count()).isEqualTo((long) ITEM_COUNTS.length * (WARMUP_ORDERS + MEASURED_ORDERS));
+        // Single-row inserts would add one statement per item. Batched, 100 items take two INSERTs,
+        // plus a small id-block transaction from the table generator for every 50 items
+        assertThat(roundTrips.get(10)).isLessThan(roundTrips.get(1) + 3);
+        assertThat(roundTrips.get(100)).isLessThan(roundTrips.get(1) + 20);
+    }
+
+    private long questions() {
+        return jdbcTemplate.queryForObject("SHOW GLOBAL STATUS LIKE 'Questions'", (rs, rowNum) -> rs.getLong(2));
+    }
+
+    private Order order(int itemCount) {
+        Order order = Order.builder()
+                .orderNumber("ORD-RT-" + orderSequence.incrementAndGet())
+                .userId(1L)
+                .totalAmount(new BigDecimal("10.00").multiply(BigDecimal.valueOf(itemCount)))
+                .status(OrderStatus.PENDING)
+                .paymentMethod("CARD")
+                .paymentStatus(PaymentStatus.PENDING)
+                .shippingAddress(ShippingAddress.builder()
+                        .fullName("Test User")
+                        .addressLine1("1 Test Street")
+                        .city("Testville")
+                        .postalCode("00000")
+                        .country("US")
+                        .build())
+                .build();
+
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            items.add(OrderItem.builder()
+                    .order(order)
+                    .productId((long) i + 1)
+                    .productName("Product " + (i + 1))
+                    .price(new BigDecimal("10.00"))
+                    .quantity(1)
+                    .subtotal(new BigDecimal("10.00"))
+                    .build());
+        }
+        order.setOrderItems(items);
+        return order;
+    }
+}
@@ -0,0 +1,88 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.OrderNumberLease;
+import com.ecommerce.order.repository.OrderNumberLeaseRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Snowflake generator against the previous timestamp + UUID suffix scheme, single-threaded and contended.
+// Run with: mvn -pl order-management-service test-compile exec:java -Dexec.classpathScope=test
+//           -Dexec.mainClass=com.ecommerce.order.service.OrderNumberGeneratorBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderNumberGeneratorBenchmark {
+
+    private SnowflakeOrderNumberGenerator snowflake;
+
+    @Setup
+    public void setUp() {
+        // The lease is extended every 10s of issued timestamps; a no-op store keeps it off the measurement
+        OrderNumberLeaseRepository leaseRepository = mock(OrderNumberLeaseRepository.class);
+        when(leaseRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.empty());
+        when(leaseRepository.save(any(OrderNumberLease.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        snowflake = new SnowflakeOrderNumberGenerator(1L, Duration.ofSeconds(10), leaseRepository,
+                mock(PlatformTransactionManager.class));
+        snowflake.afterSingletonsInstantiated();
+    }
+
+    @Benchmark
+    public String snowflake() {
+        return snowflake.nextOrderNumber();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String snowflakeContended() {
+        return snowflake.nextOrderNumber();
+    }
+
+    @Benchmark
+    public String timestampUuid() {
+        return legacyOrderNumber();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String timestampUuidContended() {
+        return legacyOrderNumber();
+    }
+
+    // What OrderService generated before the Snowflake generator
+    private static String legacyOrderNumber() {
+        return "ORD-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderNumberGeneratorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
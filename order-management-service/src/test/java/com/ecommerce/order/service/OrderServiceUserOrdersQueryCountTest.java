@@ -0,0 +1,183 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.client.ProductClient;
+import com.ecommerce.order.dto.CursorPageDto;
+import com.ecommerce.order.dto.OrderDto;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+import com.ecommerce.order.entity.OrderStatus;
+import com.ecommerce.order.entity.PaymentStatus;
+import com.ecommerce.order.entity.ShippingAddress;
+import com.ecommerce.order.kafka.OrderEventProducer;
+import com.ecommerce.order.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+@Import(OrderService.class)
+class OrderServiceUserOrdersQueryCountTest {
+
+    private static final long USER_ID = 42L;
+    private static final int ORDER_COUNT = 120;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+            .withUrlParam("rewriteBatchedStatements", "true");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+    }
+
+    @MockBean
+    private OrderEventProducer orderEventProducer;
+    @MockBean
+    private ProductSnapshotStore productSnapshotStore;
+    @MockBean
+    private ProductClient productClient;
+    @MockBean
+    private OrderNumberGenerator orderNumberGenerator;
+    @MockBean
+    private OrderTrackingService orderTrackingService;
+    @MockBean
+    private StockConfirmationService stockConfirmationService;
+    @MockBean
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            orders.add(order(USER_ID, i));
+        }
+        // Another user's orders must not leak into the page or change the statement count
+        orders.add(order(USER_ID + 1, ORDER_COUNT));
+        orderRepository.saveAll(orders);
+        entityManager.flush();
+        // Start from an empty persistence context so every row has to come from the database
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    void offsetPageOfFiftyOrdersUsesThreeStatements() {
+        Page<OrderDto> page = orderService.getUserOrders(USER_ID, 0, 50);
+
+        assertThat(page.getContent()).hasSize(50);
+        assertThat(page.getTotalElements()).isEqualTo(ORDER_COUNT);
+        assertThat(page.getContent()).allSatisfy(order ->
+                assertThat(order.getOrderItems()).hasSize(ITEMS_PER_ORDER));
+        // Id page, count query and one fetch join for orders with their items
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityFetchCount()).isZero();
+        assertThat(statistics.getCollectionFetchCount()).isZero();
+    }
+
+    @Test
+    void keysetPageOfFiftyOrdersUsesTwoStatements() {
+        CursorPageDto<OrderDto> page = orderService.getUserOrders(USER_ID, (String) null, 50);
+
+        assertThat(page.getContent()).hasSize(50);
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(page.getContent()).allSatisfy(order ->
+                assertThat(order.getOrderItems()).hasSize(ITEMS_PER_ORDER));
+        // Id page and one fetch join; no COUNT
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        statistics.clear();
+        CursorPageDto<OrderDto> next = orderService.getUserOrders(USER_ID, page.getNextCursor(), 50);
+
+        assertThat(next.getContent()).hasSize(50);
+        assertThat(next.getContent()).extracting(OrderDto::getId)
+                .doesNotContainAnyElementsOf(page.getContent().stream().map(OrderDto::getId).toList());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithPageSize() {
+        orderService.getUserOrders(USER_ID, 0, 5);
+        long smallPage = statistics.getPrepareStatementCount();
+        entityManager.clear();
+
+        statistics.clear();
+        orderService.getUserOrders(USER_ID, 0, 100);
+        long largePage = statistics.getPrepareStatementCount();
+
+        assertThat(largePage).isEqualTo(smallPage);
+    }
+
+    private static Order order(Long userId, int index) {
+        Order order = Order.builder()
+                .orderNumber("ORD-TEST-" + userId + "-" + index)
+                .userId(userId)
+                .totalAmount(new BigDecimal("30.00"))
+                .status(OrderStatus.PENDING)
+                .paymentMethod("CARD")
+                .paymentStatus(PaymentStatus.PENDING)
+                .shippingAddress(ShippingAddress.builder()
+                        .fullName("Test User")
+                        .addressLine1("1 Test Street")
+                        .city("Testville")
+                        .postalCode("00000")
+                        .country("US")
+                        .build())
+                .build();
+
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            items.add(OrderItem.builder()
+                    .order(order)
+                    .productId((long) i + 1)
+                    .productName("Product " + (i + 1))
+                    .price(new BigDecimal("10.00"))
+                    .quantity(1)
+                    .subtotal(new BigDecimal("10.00"))
+                    .build());
+        }
+        order.setOrderItems(items);
+        return order;
+    }
+}
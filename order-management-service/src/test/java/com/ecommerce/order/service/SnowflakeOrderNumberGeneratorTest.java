@@ -0,0 +1,124 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.OrderNumberLease;
+import com.ecommerce.order.repository.OrderNumberLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SnowflakeOrderNumberGeneratorTest {
+
+    private static final int THREADS = 32;
+    private static final int IDS_PER_THREAD = 20_000;
+
+    // Stands in for the order_number_leases row of the node
+    private final AtomicReference<OrderNumberLease> storedLease = new AtomicReference<>();
+    private OrderNumberLeaseRepository leaseRepository;
+
+    @BeforeEach
+    void setUp() {
+        leaseRepository = mock(OrderNumberLeaseRepository.class);
+        when(leaseRepository.findByIdForUpdate(anyLong())).thenAnswer(invocation -> Optional.ofNullable(storedLease.get())
+                .map(lease -> OrderNumberLease.builder().nodeId(lease.getNodeId()).leasedUntil(lease.getLeasedUntil()).build()));
+        when(leaseRepository.save(any(OrderNumberLease.class))).thenAnswer(invocation -> {
+            storedLease.set(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+    }
+
+    @Test
+    void issuesUniqueIncreasingNumbersAcrossThreads() throws Exception {
+        SnowflakeOrderNumberGenerator generator = generator(7L);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<String> issued = ConcurrentHashMap.newKeySet();
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    // Fixed-width upper-case base 36 sorts like the number it encodes
+                    String previous = "";
+                    boolean increasing = true;
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        String orderNumber = generator.nextOrderNumber();
+                        increasing &= orderNumber.compareTo(previous) > 0;
+                        issued.add(orderNumber);
+                        previous = orderNumber;
+                    }
+                    return increasing;
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).as("numbers issued to one thread increase").isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(issued).hasSize(THREADS * IDS_PER_THREAD);
+    }
+
+    @Test
+    void nodesNeverIssueTheSameNumber() {
+        SnowflakeOrderNumberGenerator first = generator(1L);
+        SnowflakeOrderNumberGenerator second = generator(2L);
+
+        Set<String> issued = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 100_000; i++) {
+            issued.add(first.nextOrderNumber());
+            issued.add(second.nextOrderNumber());
+        }
+
+        assertThat(issued).hasSize(200_000);
+    }
+
+    @Test
+    void restartResumesAfterThePreviousLease() {
+        SnowflakeOrderNumberGenerator before = generator(3L);
+        String last = null;
+        // Enough to overflow the sequence and borrow milliseconds ahead of the clock
+        for (int i = 0; i < 50_000; i++) {
+            last = before.nextOrderNumber();
+        }
+
+        SnowflakeOrderNumberGenerator restarted = generator(3L);
+
+        assertThat(restarted.nextOrderNumber()).isGreaterThan(last);
+    }
+
+    @Test
+    void requiresANodeId() {
+        assertThatThrownBy(() -> new SnowflakeOrderNumberGenerator(null, Duration.ofSeconds(10),
+                leaseRepository, mock(PlatformTransactionManager.class)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private SnowflakeOrderNumberGenerator generator(long nodeId) {
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(nodeId, Duration.ofSeconds(10),
+                leaseRepository, mock(PlatformTransactionManager.class));
+        generator.afterSingletonsInstantiated();
+        return generator;
+    }
+}
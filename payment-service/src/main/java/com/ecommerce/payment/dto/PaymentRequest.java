@@ -0,0 +1,15 @@
+package com.ecommerce.payment.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class PaymentRequest {
+    private Long orderId;
+    private String orderNumber;
+    private Long userId;
+    private BigDecimal amount;
+    private String paymentMethod;
+}
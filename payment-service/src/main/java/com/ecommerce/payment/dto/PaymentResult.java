@@ -0,0 +1,22 @@
+package com.ecommerce.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentResult {
+    private Long orderId;
+    private String orderNumber;
+    private PaymentOutcome outcome;
+    private String transactionId;
+    private String failureReason;
+
+    public enum PaymentOutcome {
+        COMPLETED, FAILED
+    }
+}
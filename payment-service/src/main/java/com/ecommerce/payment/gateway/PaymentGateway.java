@@ -0,0 +1,10 @@
+package com.ecommerce.payment.gateway;
+
+import com.ecommerce.payment.dto.PaymentRequest;
+import com.ecommerce.payment.dto.PaymentResult;
+
+// Implementations must pass the idempotency key through to the provider, so a charge retried after
+// a timeout or a redelivered ORDER_CREATED returns the original outcome instead of charging twice
+public interface PaymentGateway {
+    PaymentResult charge(PaymentRequest request, String idempotencyKey);
+}
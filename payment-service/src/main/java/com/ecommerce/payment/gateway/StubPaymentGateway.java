@@ -0,0 +1,60 @@
+package com.ecommerce.payment.gateway;
+
+import com.ecommerce.payment.dto.PaymentRequest;
+import com.ecommerce.payment.dto.PaymentResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Component
+@ConditionalOnProperty(name = "payment.gateway.type", havingValue = "stub", matchIfMissing = true)
+@Slf4j
+public class StubPaymentGateway implements PaymentGateway {
+
+    @Value("${payment.gateway.stub.latency:50ms}")
+    private Duration latency;
+
+    @Value("${payment.gateway.stub.failure-rate:0.0}")
+    private double failureRate;
+
+    // Mirrors a real provider: a repeated idempotency key returns the first outcome
+    private final Map<String, PaymentResult> charges = new ConcurrentHashMap<>();
+
+    @Override
+    public PaymentResult charge(PaymentRequest request, String idempotencyKey) {
+        return charges.computeIfAbsent(idempotencyKey, key -> doCharge(request));
+    }
+
+    private PaymentResult doCharge(PaymentRequest request) {
+        try {
+            Thread.sleep(latency.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Payment interrupted", e);
+        }
+
+        PaymentResult.PaymentResultBuilder result = PaymentResult.builder()
+                .orderId(request.getOrderId())
+                .orderNumber(request.getOrderNumber());
+
+        if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            return result.outcome(PaymentResult.PaymentOutcome.FAILED).failureReason("Invalid amount").build();
+        }
+        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+            return result.outcome(PaymentResult.PaymentOutcome.FAILED).failureReason("Declined").build();
+        }
+
+        log.debug("Stub payment completed for order: {}", request.getOrderNumber());
+        return result.outcome(PaymentResult.PaymentOutcome.COMPLETED)
+                .transactionId("TXN-" + UUID.randomUUID())
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.payment.kafka;
+
+import com.ecommerce.payment.dto.PaymentRequest;
+import com.ecommerce.payment.service.PaymentProcessor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderEventConsumer {
+
+    private final PaymentProcessor paymentProcessor;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(topics = "order-events", groupId = "payment-service")
+    public void onOrderEvents(List<ConsumerRecord<String, String>> records) {
+        List<PaymentRequest> requests = new ArrayList<>();
+        for (ConsumerRecord<String, String> record : records) {
+            try {
+                JsonNode event = objectMapper.readTree(record.value());
+                if (!"ORDER_CREATED".equals(event.path("eventType").asText())) {
+                    continue;
+                }
+
+                requests.add(PaymentRequest.builder()
+                        .orderId(event.path("orderId").asLong())
+                        .orderNumber(event.path("orderNumber").asText())
+                        .userId(event.path("userId").asLong())
+                        .amount(event.path("totalAmount").decimalValue())
+                        .paymentMethod(event.path("paymentMethod").asText(null))
+                        .build());
+            } catch (JsonProcessingException e) {
+                log.error("Skipping unreadable order event at offset {}", record.offset(), e);
+            }
+        }
+
+        paymentProcessor.processAll(requests);
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.payment.kafka;
+
+import com.ecommerce.payment.dto.PaymentResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentResultProducer {
+
+    private static final String TOPIC = "payment-results";
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+
+    public CompletableFuture<?> sendPaymentResult(PaymentResult result) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("eventType", "PAYMENT_PROCESSED");
+        event.put("orderId", result.getOrderId());
+        event.put("orderNumber", result.getOrderNumber());
+        event.put("paymentStatus", result.getOutcome().toString());
+        event.put("transactionId", result.getTransactionId());
+        event.put("failureReason", result.getFailureReason());
+        event.put("timestamp", LocalDateTime.now());
+
+        try {
+            String message = objectMapper.writeValueAsString(event);
+            return kafkaTemplate.send(TOPIC, result.getOrderNumber(), message);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.dto.PaymentRequest;
+import com.ecommerce.payment.dto.PaymentResult;
+import com.ecommerce.payment.gateway.PaymentGateway;
+import com.ecommerce.payment.kafka.PaymentResultProducer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Service
+@Slf4j
+public class PaymentProcessor {
+
+    private final PaymentGateway paymentGateway;
+    private final PaymentResultProducer paymentResultProducer;
+    private final ProcessedPaymentStore processedPaymentStore;
+    private final ThreadPoolExecutor paymentExecutor;
+    private final Duration batchTimeout;
+
+    public PaymentProcessor(PaymentGateway paymentGateway,
+                            PaymentResultProducer paymentResultProducer,
+                            ProcessedPaymentStore processedPaymentStore,
+                            ThreadPoolExecutor paymentExecutor,
+                            @Value("${payment.processing.batch-timeout:60s}") Duration batchTimeout) {
+        this.paymentGateway = paymentGateway;
+        this.paymentResultProducer = paymentResultProducer;
+        this.processedPaymentStore = processedPaymentStore;
+        this.paymentExecutor = paymentExecutor;
+        this.batchTimeout = batchTimeout;
+    }
+
+    // Charges the whole batch concurrently and returns once every result is acknowledged by Kafka,
+    // so the consumer only commits offsets for payments whose outcome has been published.
+    // Each outcome is recorded before it is published: when one payment fails the batch and it is
+    // redelivered, the orders already charged re-publish their recorded outcome instead of being charged again.
+    public void processAll(List<PaymentRequest> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+
+        // A redelivered event may appear twice in one batch
+        Map<String, PaymentRequest> byOrderNumber = new LinkedHashMap<>();
+        requests.forEach(request -> byOrderNumber.putIfAbsent(request.getOrderNumber(), request));
+
+        CompletableFuture<?>[] results = byOrderNumber.values().stream()
+                .map(request -> CompletableFuture
+                        .supplyAsync(() -> process(request), paymentExecutor)
+                        .thenCompose(paymentResultProducer::sendPaymentResult))
+                .toArray(CompletableFuture[]::new);
+
+        try {
+            CompletableFuture.allOf(results).get(batchTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while processing payments", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new RuntimeException("Error processing payment batch", e);
+        }
+
+        log.info("Processed {} payments", byOrderNumber.size());
+    }
+
+    private PaymentResult process(PaymentRequest request) {
+        PaymentResult processed = processedPaymentStore.find(request.getOrderNumber()).orElse(null);
+        if (processed != null) {
+            log.info("Order {} was already charged, re-publishing its outcome", request.getOrderNumber());
+            return processed;
+        }
+
+        // The order number doubles as the gateway idempotency key, covering a crash between charge and record
+        PaymentResult result = paymentGateway.charge(request, request.getOrderNumber());
+        processedPaymentStore.record(result);
+        return result;
+    }
+}
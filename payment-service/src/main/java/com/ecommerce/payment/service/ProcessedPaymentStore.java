@@ -0,0 +1,52 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.dto.PaymentResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Outcome of every order this service has charged, keyed by order number. Checked before charging
+// so a redelivered ORDER_CREATED re-publishes the recorded outcome instead of charging again.
+@Component
+public class ProcessedPaymentStore {
+
+    private static final String KEY_PREFIX = "payment:processed:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    public ProcessedPaymentStore(StringRedisTemplate redisTemplate,
+                                 ObjectMapper objectMapper,
+                                 @Value("${payment.processing.processed-ttl:7d}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+    }
+
+    public Optional<PaymentResult> find(String orderNumber) {
+        String value = redisTemplate.opsForValue().get(KEY_PREFIX + orderNumber);
+        if (value == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(value, PaymentResult.class));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Unreadable payment record for order: " + orderNumber, e);
+        }
+    }
+
+    public void record(PaymentResult result) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + result.getOrderNumber(),
+                    objectMapper.writeValueAsString(result), ttl);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error recording payment for order: " + result.getOrderNumber(), e);
+        }
+    }
+}
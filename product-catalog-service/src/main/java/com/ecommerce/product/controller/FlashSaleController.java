@@ -0,0 +1,35 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.product.dto.FlashSaleStockDto;
+import com.ecommerce.product.service.FlashSaleStockService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/flash-sales/products")
+@ConditionalOnProperty(name = "flash-sale.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class FlashSaleController {
+
+    private final FlashSaleStockService flashSaleStockService;
+
+    @PostMapping("/{productId}")
+    public ResponseEntity<FlashSaleStockDto> enable(@PathVariable Long productId) {
+        FlashSaleStockDto stock = flashSaleStockService.enable(productId);
+        return ResponseEntity.ok(stock);
+    }
+
+    @GetMapping("/{productId}")
+    public ResponseEntity<FlashSaleStockDto> getStock(@PathVariable Long productId) {
+        FlashSaleStockDto stock = flashSaleStockService.getStock(productId);
+        return ResponseEntity.ok(stock);
+    }
+
+    @DeleteMapping("/{productId}")
+    public ResponseEntity<Void> disable(@PathVariable Long productId) {
+        flashSaleStockService.disable(productId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -3,12 +3,16 @@ package com.ecommerce.product.controller;
 import com.ecommerce.product.dto.*;
 import com.ecommerce.product.service.ProductService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/products")
 @RequiredArgsConstructor
@@ -28,6 +32,12 @@ public class ProductController {
         return ResponseEntity.ok(product);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<ProductDto>> getProductsByIds(@RequestBody List<Long> productIds) {
+        List<ProductDto> products = productService.getProductsByIds(productIds);
+        return ResponseEntity.ok(products);
+    }
+
     @GetMapping
     public ResponseEntity<Page<ProductDto>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
@@ -36,6 +46,14 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPageDto<ProductDto>> getAllProductsAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        CursorPageDto<ProductDto> products = productService.getAllProducts(after, size);
+        return ResponseEntity.ok(products);
+    }
+
     @GetMapping("/category/{categoryId}")
     public ResponseEntity<Page<ProductDto>> getProductsByCategory(
             @PathVariable Long categoryId,
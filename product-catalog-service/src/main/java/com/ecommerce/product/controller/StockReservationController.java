@@ -0,0 +1,51 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.product.dto.StockConfirmationResultDto;
+import com.ecommerce.product.dto.StockReservationDto;
+import com.ecommerce.product.dto.StockReservationRequestDto;
+import com.ecommerce.product.service.StockReservationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stock-reservations")
+@RequiredArgsConstructor
+public class StockReservationController {
+
+    private final StockReservationService stockReservationService;
+
+    @PostMapping
+    public ResponseEntity<StockReservationDto> reserve(@Valid @RequestBody StockReservationRequestDto request) {
+        StockReservationDto reservation = stockReservationService.reserve(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
+    }
+
+    @GetMapping("/{reference}")
+    public ResponseEntity<StockReservationDto> getReservation(@PathVariable String reference) {
+        StockReservationDto reservation = stockReservationService.getReservation(reference);
+        return ResponseEntity.ok(reservation);
+    }
+
+    @PostMapping("/{reference}/confirm")
+    public ResponseEntity<StockConfirmationResultDto> confirm(@PathVariable String reference) {
+        StockConfirmationResultDto result = stockReservationService.confirm(reference);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/confirmations")
+    public ResponseEntity<StockConfirmationResultDto> confirmAll(@RequestBody List<String> references) {
+        StockConfirmationResultDto result = stockReservationService.confirmAll(references);
+        return ResponseEntity.ok(result);
+    }
+
+    @DeleteMapping("/{reference}")
+    public ResponseEntity<Void> release(@PathVariable String reference) {
+        stockReservationService.release(reference);
+        return ResponseEntity.noContent().build();
+    }
+}
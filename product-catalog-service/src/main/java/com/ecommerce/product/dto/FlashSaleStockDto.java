@@ -0,0 +1,14 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlashSaleStockDto {
+    private Long productId;
+    private Long availableStock;
+    private Long pendingReconciliation;
+}
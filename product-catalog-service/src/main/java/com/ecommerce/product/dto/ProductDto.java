@@ -16,5 +16,6 @@ public class ProductDto {
     private Long categoryId;
     private String categoryName;
     private String status;
+    private Long version;
     private LocalDateTime createdAt;
 }
@@ -0,0 +1,19 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockConfirmationResultDto {
+    // No reservation under the reference, e.g. orders placed before reservations existed
+    private List<String> notFound = new ArrayList<>();
+
+    // Reservation lapsed or was released and its stock could not be taken again
+    private List<String> failed = new ArrayList<>();
+}
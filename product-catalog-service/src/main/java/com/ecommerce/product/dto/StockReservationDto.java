@@ -0,0 +1,21 @@
+package com.ecommerce.product.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class StockReservationDto {
+    private Long id;
+    private String reference;
+    private String status;
+    private List<ItemDto> items;
+    private LocalDateTime expiresAt;
+    private LocalDateTime createdAt;
+
+    @Data
+    public static class ItemDto {
+        private Long productId;
+        private Integer quantity;
+    }
+}
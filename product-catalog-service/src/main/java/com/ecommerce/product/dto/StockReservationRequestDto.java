@@ -0,0 +1,32 @@
+package com.ecommerce.product.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class StockReservationRequestDto {
+    @NotBlank(message = "Reference is required")
+    private String reference;
+
+    @NotEmpty(message = "Items are required")
+    @Valid
+    private List<ItemDto> items;
+
+    @Positive(message = "TTL must be positive")
+    private Long ttlSeconds;
+
+    @Data
+    public static class ItemDto {
+        @NotNull(message = "Product ID is required")
+        private Long productId;
+
+        @NotNull(message = "Quantity is required")
+        @Positive(message = "Quantity must be positive")
+        private Integer quantity;
+    }
+}
@@ -12,7 +12,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_created", columnList = "created_at, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -46,6 +48,10 @@ public class Product {
     @Enumerated(EnumType.STRING)
     private ProductStatus status;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @CreationTimestamp
     @Column(name = "created_at")
     private LocalDateTime createdAt;
@@ -0,0 +1,5 @@
+package com.ecommerce.product.entity;
+
+public enum ReservationStatus {
+    RESERVED, CONFIRMED, RELEASED, EXPIRED
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.product.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "stock_reservation_items")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "reservation_id")
+    private StockReservation reservation;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    private Integer quantity;
+}
@@ -29,6 +29,8 @@ public class ProductEventProducer {
             event.put("price", product.getPrice());
             event.put("stockQuantity", product.getStockQuantity());
             event.put("categoryId", product.getCategory().getId());
+            event.put("status", product.getStatus().toString());
+            event.put("version", product.getVersion());
             event.put("timestamp", LocalDateTime.now());
 
             String message = objectMapper.writeValueAsString(event);
@@ -48,6 +50,8 @@ public class ProductEventProducer {
             event.put("name", product.getName());
             event.put("price", product.getPrice());
             event.put("stockQuantity", product.getStockQuantity());
+            event.put("status", product.getStatus().toString());
+            event.put("version", product.getVersion());
             event.put("timestamp", LocalDateTime.now());
 
             String message = objectMapper.writeValueAsString(event);
@@ -64,6 +68,7 @@ public class ProductEventProducer {
             Map<String, Object> event = new HashMap<>();
             event.put("eventType", "PRODUCT_DELETED");
             event.put("productId", product.getId());
+            event.put("version", product.getVersion());
             event.put("timestamp", LocalDateTime.now());
 
             String message = objectMapper.writeValueAsString(event);
@@ -2,15 +2,20 @@ package com.ecommerce.product.repository;
 
 import com.ecommerce.product.entity.Product;
 import com.ecommerce.product.entity.ProductStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -23,5 +28,31 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     List<Product> findByStatus(ProductStatus status);
 
+    @Query("SELECT p FROM Product p JOIN FETCH p.category ORDER BY p.createdAt, p.id")
+    List<Product> findFirstProducts(Pageable pageable);
+
+    @Query("SELECT p FROM Product p JOIN FETCH p.category " +
+           "WHERE p.createdAt > :createdAt OR (p.createdAt = :createdAt AND p.id > :id) " +
+           "ORDER BY p.createdAt, p.id")
+    List<Product> findProductsAfter(@Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") Long id,
+                                    Pageable pageable);
+
     boolean existsBySku(String sku);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :productId")
+    Optional<Product> findByIdForUpdate(@Param("productId") Long productId);
+
+    // Atomic conditional decrement: returns 0 instead of overselling. Both stock updates bump the version
+    // so a concurrent full-entity save of a stale Product fails its optimistic lock instead of undoing them.
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.version = p.version + 1 " +
+           "WHERE p.id = :productId AND p.stockQuantity >= :quantity")
+    int decrementStock(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity, p.version = p.version + 1 " +
+           "WHERE p.id = :productId")
+    int incrementStock(@Param("productId") Long productId, @Param("quantity") int quantity);
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.entity.ReservationStatus;
+import com.ecommerce.product.entity.StockReservation;
+import com.ecommerce.product.entity.StockReservationItem;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+    Optional<StockReservation> findByReference(String reference);
+
+    @Query("SELECT r.id FROM StockReservation r WHERE r.status = :status AND r.expiresAt < :now ORDER BY r.expiresAt")
+    List<Long> findIdsByStatusExpiredBefore(@Param("status") ReservationStatus status,
+                                            @Param("now") LocalDateTime now,
+                                            Pageable pageable);
+
+    @Query("SELECT i FROM StockReservationItem i WHERE i.reservation.id = :reservationId ORDER BY i.productId")
+    List<StockReservationItem> findItemsByReservationId(@Param("reservationId") Long reservationId);
+
+    // Conditional transition: only the caller that gets 1 back may touch the stock
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE StockReservation r SET r.status = :to, r.updatedAt = :now WHERE r.id = :id AND r.status IN :from")
+    int transition(@Param("id") Long id,
+                   @Param("from") Collection<ReservationStatus> from,
+                   @Param("to") ReservationStatus to,
+                   @Param("now") LocalDateTime now);
+}
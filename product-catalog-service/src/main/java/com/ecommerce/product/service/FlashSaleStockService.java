@@ -0,0 +1,276 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.dto.FlashSaleStockDto;
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+// Flash-sale stock lives in Redis counters while a product is in flash mode; the presence of
+// flash:stock:{id} is what puts a product in flash mode. Accepted decrements accumulate in the
+// flash:pending hash and are folded back into products.stock_quantity by reconcile().
+@Service
+@ConditionalOnProperty(name = "flash-sale.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class FlashSaleStockService {
+
+    private static final String STOCK_KEY_PREFIX = "flash:stock:";
+    private static final String PENDING_KEY = "flash:pending";
+    private static final String RECONCILE_LOCK_KEY = "flash:reconcile:lock";
+
+    // KEYS: stock keys then the pending hash; ARGV: quantities then product ids.
+    // Returns the 1-based positions served from Redis, or {-position} of the first short line.
+    private static final RedisScript<List<Long>> RESERVE_SCRIPT = positionsScript("""
+            local n = #KEYS - 1
+            local flash = {}
+            for i = 1, n do
+              local stock = redis.call('GET', KEYS[i])
+              if stock then
+                if tonumber(stock) < tonumber(ARGV[i]) then
+                  return {-i}
+                end
+                flash[#flash + 1] = i
+              end
+            end
+            for _, i in ipairs(flash) do
+              redis.call('DECRBY', KEYS[i], ARGV[i])
+              redis.call('HINCRBY', KEYS[#KEYS], ARGV[n + i], ARGV[i])
+            end
+            return flash
+            """);
+
+    // Same layout as RESERVE_SCRIPT; returns the positions that were returned to Redis
+    private static final RedisScript<List<Long>> RESTORE_SCRIPT = positionsScript("""
+            local n = #KEYS - 1
+            local restored = {}
+            for i = 1, n do
+              if redis.call('EXISTS', KEYS[i]) == 1 then
+                redis.call('INCRBY', KEYS[i], ARGV[i])
+                redis.call('HINCRBY', KEYS[#KEYS], ARGV[n + i], -tonumber(ARGV[i]))
+                restored[#restored + 1] = i
+              end
+            end
+            return restored
+            """);
+
+    // ARGV: product id, quantity pairs taken off the pending hash; fields that reach zero are removed
+    private static final RedisScript<Long> SETTLE_SCRIPT = new DefaultRedisScript<>("""
+            for i = 1, #ARGV, 2 do
+              if redis.call('HINCRBY', KEYS[1], ARGV[i], -tonumber(ARGV[i + 1])) == 0 then
+                redis.call('HDEL', KEYS[1], ARGV[i])
+              end
+            end
+            return #ARGV / 2
+            """, Long.class);
+
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ProductRepository productRepository;
+
+    @Value("${flash-sale.reconcile-lock-timeout:30s}")
+    private Duration reconcileLockTimeout;
+
+    @Transactional
+    public FlashSaleStockDto enable(Long productId) {
+        // Row lock keeps the preloaded counter consistent with the stock the database hands over;
+        // reservations queued on the lock meanwhile move themselves to Redis through fence()
+        Product product = productRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+
+        Boolean preloaded = redisTemplate.opsForValue()
+                .setIfAbsent(stockKey(productId), String.valueOf(product.getStockQuantity()));
+        if (!Boolean.TRUE.equals(preloaded)) {
+            throw new RuntimeException("Flash sale already enabled for product: " + productId);
+        }
+
+        log.info("Flash sale enabled for product {} with {} units", productId, product.getStockQuantity());
+        return getStock(productId);
+    }
+
+    @Transactional
+    public void disable(Long productId) {
+        redisTemplate.delete(stockKey(productId));
+        // Fold outstanding decrements into the database before it becomes the stock source again
+        reconcile();
+        log.info("Flash sale disabled for product {}", productId);
+    }
+
+    public FlashSaleStockDto getStock(Long productId) {
+        String stock = redisTemplate.opsForValue().get(stockKey(productId));
+        if (stock == null) {
+            throw new RuntimeException("Flash sale not enabled for product: " + productId);
+        }
+        Object pending = redisTemplate.opsForHash().get(PENDING_KEY, productId.toString());
+        return new FlashSaleStockDto(productId, Long.valueOf(stock),
+                pending != null ? Long.valueOf(pending.toString()) : 0L);
+    }
+
+    // Must run inside the reservation transaction: a rollback hands the units back to Redis
+    public Set<Long> reserve(Map<Long, Integer> quantities) {
+        List<Long> productIds = new ArrayList<>(quantities.keySet());
+        List<Long> positions = execute(RESERVE_SCRIPT, productIds, quantities);
+
+        if (!positions.isEmpty() && positions.get(0) < 0) {
+            Long productId = productIds.get((int) (-positions.get(0)) - 1);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Insufficient stock for product: " + productId);
+        }
+
+        Map<Long, Integer> reserved = select(productIds, positions, quantities);
+        if (!reserved.isEmpty()) {
+            onRollback(() -> execute(RESTORE_SCRIPT, new ArrayList<>(reserved.keySet()), reserved));
+        }
+        return reserved.keySet();
+    }
+
+    // Must run after the reservation has decremented the rows of every product it took from the database.
+    // A product found in flash mode now was switched by enable() while this reservation waited on its row
+    // lock, so the preload already counted those units: they are taken from Redis and handed back to the row.
+    public Set<Long> fence(Map<Long, Integer> rowQuantities) {
+        if (rowQuantities.isEmpty()) {
+            return Set.of();
+        }
+        Set<Long> switched = reserve(rowQuantities);
+        switched.forEach(productId -> productRepository.incrementStock(productId, rowQuantities.get(productId)));
+        if (!switched.isEmpty()) {
+            log.info("Moved reservation of products {} to flash-sale stock", switched);
+        }
+        return switched;
+    }
+
+    // Returns the products whose units went back to Redis; the rest belong to the database
+    public Set<Long> restore(Map<Long, Integer> quantities) {
+        List<Long> productIds = new ArrayList<>(quantities.keySet());
+        Map<Long, Integer> restored = select(productIds, execute(RESTORE_SCRIPT, productIds, quantities), quantities);
+        if (!restored.isEmpty()) {
+            onRollback(() -> execute(RESERVE_SCRIPT, new ArrayList<>(restored.keySet()), restored));
+        }
+        return restored.keySet();
+    }
+
+    // Pending counts are only read here and taken off the hash once the database write has committed,
+    // so a failed or crashed reconcile never loses decrements. Reconcilers on other instances would read
+    // the same counts, so only the holder of the lock folds them.
+    @Scheduled(fixedDelayString = "${flash-sale.reconcile-interval-ms:1000}")
+    @Transactional
+    public void reconcile() {
+        String token = UUID.randomUUID().toString();
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(RECONCILE_LOCK_KEY, token, reconcileLockTimeout))) {
+            return;
+        }
+        // Released after afterCommit has settled the hash, so the next holder never reads counts twice
+        onCompletion(() -> redisTemplate.execute(UNLOCK_SCRIPT, List.of(RECONCILE_LOCK_KEY), token));
+
+        Map<Long, Integer> pending = new TreeMap<>();
+        redisTemplate.<String, String>opsForHash().entries(PENDING_KEY).forEach((productId, quantity) -> {
+            if (Integer.parseInt(quantity) != 0) {
+                pending.put(Long.valueOf(productId), Integer.parseInt(quantity));
+            }
+        });
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        pending.forEach((productId, quantity) -> productRepository.incrementStock(productId, -quantity));
+
+        // Reservations accepted meanwhile only added to the hash, so subtracting what was folded keeps them pending
+        List<String> settled = new ArrayList<>(pending.size() * 2);
+        pending.forEach((productId, quantity) -> {
+            settled.add(productId.toString());
+            settled.add(quantity.toString());
+        });
+        onCommit(() -> redisTemplate.execute(SETTLE_SCRIPT, List.of(PENDING_KEY), settled.toArray()));
+        log.debug("Reconciled flash-sale stock for {} products", pending.size());
+    }
+
+    private List<Long> execute(RedisScript<List<Long>> script, List<Long> productIds, Map<Long, Integer> quantities) {
+        List<String> keys = new ArrayList<>(productIds.size() + 1);
+        List<String> args = new ArrayList<>(productIds.size() * 2);
+        for (Long productId : productIds) {
+            keys.add(stockKey(productId));
+            args.add(quantities.get(productId).toString());
+        }
+        keys.add(PENDING_KEY);
+        productIds.forEach(productId -> args.add(productId.toString()));
+
+        List<Long> positions = redisTemplate.execute(script, keys, args.toArray());
+        return positions != null ? positions : List.of();
+    }
+
+    private static Map<Long, Integer> select(List<Long> productIds, List<Long> positions, Map<Long, Integer> quantities) {
+        Map<Long, Integer> selected = new TreeMap<>();
+        for (Long position : positions) {
+            Long productId = productIds.get(position.intValue() - 1);
+            selected.put(productId, quantities.get(productId));
+        }
+        return selected;
+    }
+
+    // Both position scripts reply with a list of integers, which Redis hands back as Longs
+    @SuppressWarnings("unchecked")
+    private static RedisScript<List<Long>> positionsScript(String script) {
+        return new DefaultRedisScript<>(script, (Class<List<Long>>) (Class<?>) List.class);
+    }
+
+    private static void onCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static void onCompletion(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    private static void onRollback(Runnable compensation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    compensation.run();
+                }
+            }
+        });
+    }
+
+    private static String stockKey(Long productId) {
+        return STOCK_KEY_PREFIX + productId;
+    }
+}
@@ -17,7 +17,11 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -68,6 +72,22 @@ public class ProductService {
         return mapToProductDto(product);
     }
 
+    @Transactional(readOnly = true)
+    public List<ProductDto> getProductsByIds(Collection<Long> productIds) {
+        List<Product> products = productRepository.findAllById(Set.copyOf(productIds));
+
+        // Resolve all categories in one query instead of initializing each lazy proxy
+        Set<Long> categoryIds = products.stream()
+                .map(product -> product.getCategory().getId())
+                .collect(Collectors.toSet());
+        Map<Long, Category> categories = categoryRepository.findAllById(categoryIds).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+
+        return products.stream()
+                .map(product -> mapToProductDto(product, categories.get(product.getCategory().getId())))
+                .collect(Collectors.toList());
+    }
+
     public Page<ProductDto> getAllProducts(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         Page<Product> products = productRepository.findAll(pageable);
@@ -75,6 +95,34 @@ public class ProductService {
         return products.map(this::mapToProductDto);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageDto<ProductDto> getAllProducts(String after, int size) {
+        // Keyset pagination: fetch one extra row to learn whether another page exists, no COUNT query
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Product> products;
+        if (after == null || after.isEmpty()) {
+            products = productRepository.findFirstProducts(limit);
+        } else {
+            PageCursor cursor = PageCursor.decode(after);
+            products = productRepository.findProductsAfter(cursor.createdAt(), cursor.id(), limit);
+        }
+
+        boolean hasMore = products.size() > size;
+        List<Product> page = hasMore ? products.subList(0, size) : products;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Product last = page.get(page.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        List<ProductDto> content = page.stream()
+                .map(this::mapToProductDto)
+                .collect(Collectors.toList());
+
+        return new CursorPageDto<>(content, nextCursor, hasMore);
+    }
+
     public Page<ProductDto> getProductsByCategory(Long categoryId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         Page<Product> products = productRepository.findByCategoryId(categoryId, pageable);
@@ -108,7 +156,8 @@ public class ProductService {
             product.setCategory(category);
         }
 
-        Product updatedProduct = productRepository.save(product);
+        // Flush so the event carries the incremented version
+        Product updatedProduct = productRepository.saveAndFlush(product);
 
         // Update in Elasticsearch
         indexProductInElasticsearch(updatedProduct);
@@ -173,6 +222,10 @@ public class ProductService {
     }
 
     private ProductDto mapToProductDto(Product product) {
+        return mapToProductDto(product, product.getCategory());
+    }
+
+    private ProductDto mapToProductDto(Product product, Category category) {
         ProductDto dto = new ProductDto();
         dto.setId(product.getId());
         dto.setName(product.getName());
@@ -181,9 +234,10 @@ public class ProductService {
         dto.setStockQuantity(product.getStockQuantity());
         dto.setSku(product.getSku());
         dto.setImageUrl(product.getImageUrl());
-        dto.setCategoryId(product.getCategory().getId());
-        dto.setCategoryName(product.getCategory().getName());
+        dto.setCategoryId(category.getId());
+        dto.setCategoryName(category.getName());
         dto.setStatus(product.getStatus().toString());
+        dto.setVersion(product.getVersion());
         dto.setCreatedAt(product.getCreatedAt());
         return dto;
     }
@@ -0,0 +1,254 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.dto.StockConfirmationResultDto;
+import com.ecommerce.product.dto.StockReservationDto;
+import com.ecommerce.product.dto.StockReservationRequestDto;
+import com.ecommerce.product.entity.ReservationStatus;
+import com.ecommerce.product.entity.StockReservation;
+import com.ecommerce.product.entity.StockReservationItem;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.repository.StockReservationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationService {
+
+    private static final Set<ReservationStatus> RELEASABLE = EnumSet.of(ReservationStatus.RESERVED, ReservationStatus.CONFIRMED);
+
+    private final StockReservationRepository stockReservationRepository;
+    private final ProductRepository productRepository;
+    private final Optional<FlashSaleStockService> flashSaleStockService;
+
+    @Value("${stock.reservation.default-ttl:15m}")
+    private Duration defaultTtl;
+
+    @Value("${stock.reservation.expiry-batch-size:100}")
+    private int expiryBatchSize;
+
+    @Transactional
+    public StockReservationDto reserve(StockReservationRequestDto request) {
+        StockReservation existing = stockReservationRepository.findByReference(request.getReference()).orElse(null);
+        if (existing != null) {
+            return mapToDto(existing);
+        }
+
+        // Merge duplicate lines and decrement in product id order so concurrent reservations lock rows consistently
+        Map<Long, Integer> quantities = new TreeMap<>();
+        request.getItems().forEach(item -> quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+
+        // Products in flash-sale mode are taken from their Redis counters, everything else from the row
+        Set<Long> flashSaleProducts = flashSaleStockService.map(service -> service.reserve(quantities)).orElse(Set.of());
+        Map<Long, Integer> rowQuantities = new TreeMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (flashSaleProducts.contains(entry.getKey())) {
+                continue;
+            }
+            if (productRepository.decrementStock(entry.getKey(), entry.getValue()) == 0) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Insufficient stock for product: " + entry.getKey());
+            }
+            rowQuantities.put(entry.getKey(), entry.getValue());
+        }
+        // Picks up products that switched to flash mode while their row decrement waited
+        flashSaleStockService.ifPresent(service -> service.fence(rowQuantities));
+
+        Duration ttl = request.getTtlSeconds() != null ? Duration.ofSeconds(request.getTtlSeconds()) : defaultTtl;
+        StockReservation reservation = StockReservation.builder()
+                .reference(request.getReference())
+                .status(ReservationStatus.RESERVED)
+                .expiresAt(LocalDateTime.now().plus(ttl))
+                .build();
+        reservation.setItems(quantities.entrySet().stream()
+                .map(entry -> StockReservationItem.builder()
+                        .reservation(reservation)
+                        .productId(entry.getKey())
+                        .quantity(entry.getValue())
+                        .build())
+                .collect(Collectors.toList()));
+
+        StockReservation savedReservation = stockReservationRepository.save(reservation);
+        log.info("Reserved stock for {}: {}", request.getReference(), quantities);
+
+        return mapToDto(savedReservation);
+    }
+
+    @Transactional(readOnly = true)
+    public StockReservationDto getReservation(String reference) {
+        return mapToDto(findByReference(reference));
+    }
+
+    @Transactional
+    public StockConfirmationResultDto confirm(String reference) {
+        return confirmAll(List.of(reference));
+    }
+
+    // Reports rather than throws, for one reference or many alike: the caller has already taken payment
+    // and must decide what to do with each order. One lapsed reservation never holds back the rest.
+    @Transactional
+    public StockConfirmationResultDto confirmAll(List<String> references) {
+        StockConfirmationResultDto result = new StockConfirmationResultDto();
+        for (String reference : new LinkedHashSet<>(references)) {
+            Optional<StockReservation> reservation = stockReservationRepository.findByReference(reference);
+            if (reservation.isEmpty()) {
+                result.getNotFound().add(reference);
+            } else if (!confirmReservation(reservation.get().getId())) {
+                result.getFailed().add(reference);
+            }
+        }
+        if (!result.getFailed().isEmpty()) {
+            log.warn("Could not confirm stock reservations {}", result.getFailed());
+        }
+        return result;
+    }
+
+    @Transactional
+    public void release(String reference) {
+        stockReservationRepository.findByReference(reference)
+                .ifPresent(reservation -> restoreStock(reservation.getId(), RELEASABLE, ReservationStatus.RELEASED));
+    }
+
+    @Scheduled(fixedDelayString = "${stock.reservation.expiry-interval-ms:30000}")
+    @Transactional
+    public void expireReservations() {
+        List<Long> expiredIds = stockReservationRepository.findIdsByStatusExpiredBefore(
+                ReservationStatus.RESERVED, LocalDateTime.now(), PageRequest.of(0, expiryBatchSize));
+
+        int expired = 0;
+        for (Long reservationId : expiredIds) {
+            if (restoreStock(reservationId, EnumSet.of(ReservationStatus.RESERVED), ReservationStatus.EXPIRED)) {
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            log.info("Expired {} stock reservations", expired);
+        }
+    }
+
+    private boolean confirmReservation(Long reservationId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (stockReservationRepository.transition(reservationId, EnumSet.of(ReservationStatus.RESERVED),
+                ReservationStatus.CONFIRMED, now) == 1) {
+            return true;
+        }
+
+        // Paid after the hold expired: its units were handed back, so take them again if they are still there
+        if (stockReservationRepository.transition(reservationId, EnumSet.of(ReservationStatus.EXPIRED),
+                ReservationStatus.CONFIRMED, now) == 1) {
+            if (retakeStock(reservationId)) {
+                log.warn("Re-reserved stock for lapsed reservation {}", reservationId);
+                return true;
+            }
+            stockReservationRepository.transition(reservationId, EnumSet.of(ReservationStatus.CONFIRMED),
+                    ReservationStatus.EXPIRED, now);
+            return false;
+        }
+
+        return stockReservationRepository.findById(reservationId)
+                .map(reservation -> reservation.getStatus() == ReservationStatus.CONFIRMED)
+                .orElse(false);
+    }
+
+    // All or nothing: on a short line every unit already taken is handed back before returning false
+    private boolean retakeStock(Long reservationId) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        stockReservationRepository.findItemsByReservationId(reservationId)
+                .forEach(item -> quantities.put(item.getProductId(), item.getQuantity()));
+
+        Set<Long> flashSaleProducts;
+        try {
+            flashSaleProducts = flashSaleStockService.map(service -> service.reserve(quantities)).orElse(Set.of());
+        } catch (RuntimeException e) {
+            return false;
+        }
+
+        Map<Long, Integer> taken = new TreeMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (flashSaleProducts.contains(entry.getKey())) {
+                continue;
+            }
+            if (productRepository.decrementStock(entry.getKey(), entry.getValue()) == 0) {
+                giveBack(quantities, flashSaleProducts, taken);
+                return false;
+            }
+            taken.put(entry.getKey(), entry.getValue());
+        }
+
+        try {
+            flashSaleStockService.ifPresent(service -> service.fence(taken));
+        } catch (RuntimeException e) {
+            giveBack(quantities, flashSaleProducts, taken);
+            return false;
+        }
+        return true;
+    }
+
+    private void giveBack(Map<Long, Integer> quantities, Set<Long> flashSaleProducts, Map<Long, Integer> taken) {
+        taken.forEach(productRepository::incrementStock);
+        Map<Long, Integer> flashSaleQuantities = new TreeMap<>(quantities);
+        flashSaleQuantities.keySet().retainAll(flashSaleProducts);
+        if (!flashSaleQuantities.isEmpty()) {
+            flashSaleStockService.ifPresent(service -> service.restore(flashSaleQuantities));
+        }
+    }
+
+    private boolean restoreStock(Long reservationId, Set<ReservationStatus> from, ReservationStatus to) {
+        if (stockReservationRepository.transition(reservationId, from, to, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        Map<Long, Integer> quantities = new TreeMap<>();
+        stockReservationRepository.findItemsByReservationId(reservationId)
+                .forEach(item -> quantities.put(item.getProductId(), item.getQuantity()));
+
+        // Units go back to wherever the product's stock currently lives
+        Set<Long> flashSaleProducts = flashSaleStockService.map(service -> service.restore(quantities)).orElse(Set.of());
+        quantities.forEach((productId, quantity) -> {
+            if (!flashSaleProducts.contains(productId)) {
+                productRepository.incrementStock(productId, quantity);
+            }
+        });
+        return true;
+    }
+
+    private StockReservation findByReference(String reference) {
+        return stockReservationRepository.findByReference(reference)
+                .orElseThrow(() -> new RuntimeException("Reservation not found"));
+    }
+
+    private StockReservationDto mapToDto(StockReservation reservation) {
+        StockReservationDto dto = new StockReservationDto();
+        dto.setId(reservation.getId());
+        dto.setReference(reservation.getReference());
+        dto.setStatus(reservation.getStatus().name());
+        dto.setItems(reservation.getItems().stream()
+                .map(item -> {
+                    StockReservationDto.ItemDto itemDto = new StockReservationDto.ItemDto();
+                    itemDto.setProductId(item.getProductId());
+                    itemDto.setQuantity(item.getQuantity());
+                    return itemDto;
+                })
+                .collect(Collectors.toList()));
+        dto.setExpiresAt(reservation.getExpiresAt());
+        dto.setCreatedAt(reservation.getCreatedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,229 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// The reserve and restore scripts run against a real Redis; the database side is mocked
+@Testcontainers(disabledWithoutDocker = true)
+class FlashSaleStockServiceRedisTest {
+
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS = 500;
+
+    @Container
+    static final GenericContainer<?> REDIS = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private StringRedisTemplate redisTemplate;
+    private ProductRepository productRepository;
+    private FlashSaleStockService flashSaleStockService;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+        productRepository = mock(ProductRepository.class);
+        flashSaleStockService = new FlashSaleStockService(redisTemplate, productRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void concurrentReservationsStopExactlyAtZero() throws Exception {
+        enable(1L, 50);
+
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Throwable> unexpected = runConcurrently(() -> reserveOrCount(Map.of(1L, 1), reserved, conflicts));
+
+        assertThat(unexpected).isEmpty();
+        assertThat(reserved.get()).isEqualTo(50);
+        assertThat(conflicts.get()).isEqualTo(ATTEMPTS - 50);
+        assertThat(flashSaleStockService.getStock(1L).getAvailableStock()).isZero();
+        assertThat(flashSaleStockService.getStock(1L).getPendingReconciliation()).isEqualTo(50);
+    }
+
+    @Test
+    void concurrentMultiProductReservationsNeverTakeHalfALine() throws Exception {
+        enable(1L, 30);
+        enable(2L, 20);
+
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Throwable> unexpected = runConcurrently(() -> reserveOrCount(quantities(1L, 1, 2L, 1), reserved, conflicts));
+
+        // The scarcer product decides; the other keeps every unit a refused reservation asked for
+        assertThat(unexpected).isEmpty();
+        assertThat(reserved.get()).isEqualTo(20);
+        assertThat(flashSaleStockService.getStock(1L).getAvailableStock()).isEqualTo(10);
+        assertThat(flashSaleStockService.getStock(1L).getPendingReconciliation()).isEqualTo(20);
+        assertThat(flashSaleStockService.getStock(2L).getAvailableStock()).isZero();
+        assertThat(flashSaleStockService.getStock(2L).getPendingReconciliation()).isEqualTo(20);
+    }
+
+    @Test
+    void shortLineRejectsTheWholeReservation() {
+        enable(1L, 5);
+        enable(2L, 1);
+
+        assertThatThrownBy(() -> flashSaleStockService.reserve(quantities(1L, 2, 2L, 2)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+
+        assertThat(flashSaleStockService.getStock(1L).getAvailableStock()).isEqualTo(5);
+        assertThat(flashSaleStockService.getStock(2L).getAvailableStock()).isEqualTo(1);
+        assertThat(redisTemplate.opsForHash().entries("flash:pending")).isEmpty();
+
+        // Exactly the remaining unit is still available
+        assertThat(flashSaleStockService.reserve(quantities(1L, 2, 2L, 1))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(flashSaleStockService.getStock(2L).getAvailableStock()).isZero();
+    }
+
+    @Test
+    void productsOutsideFlashModeAreLeftToTheDatabase() {
+        enable(1L, 5);
+
+        Set<Long> reserved = flashSaleStockService.reserve(quantities(1L, 2, 3L, 7));
+
+        assertThat(reserved).containsExactly(1L);
+        assertThat(flashSaleStockService.getStock(1L).getAvailableStock()).isEqualTo(3);
+        assertThat(redisTemplate.hasKey("flash:stock:3")).isFalse();
+    }
+
+    @Test
+    void restoreReturnsUnitsAndClearsPending() {
+        enable(1L, 5);
+        flashSaleStockService.reserve(Map.of(1L, 3));
+
+        Set<Long> restored = flashSaleStockService.restore(quantities(1L, 3, 3L, 4));
+
+        assertThat(restored).containsExactly(1L);
+        assertThat(flashSaleStockService.getStock(1L).getAvailableStock()).isEqualTo(5);
+        assertThat(flashSaleStockService.getStock(1L).getPendingReconciliation()).isZero();
+    }
+
+    @Test
+    void rolledBackReservationHandsItsUnitsBack() {
+        enable(1L, 5);
+        TransactionSynchronizationManager.initSynchronization();
+
+        flashSaleStockService.reserve(Map.of(1L, 4));
+        assertThat(flashSaleStockService.getStock(1L).getAvailableStock()).isEqualTo(1);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(flashSaleStockService.getStock(1L).getAvailableStock()).isEqualTo(5);
+        assertThat(flashSaleStockService.getStock(1L).getPendingReconciliation()).isZero();
+    }
+
+    private void enable(Long productId, int stock) {
+        when(productRepository.findByIdForUpdate(productId))
+                .thenReturn(Optional.of(Product.builder().id(productId).stockQuantity(stock).build()));
+        flashSaleStockService.enable(productId);
+    }
+
+    private void reserveOrCount(Map<Long, Integer> quantities, AtomicInteger reserved, AtomicInteger conflicts) {
+        try {
+            flashSaleStockService.reserve(quantities);
+            reserved.incrementAndGet();
+        } catch (ResponseStatusException e) {
+            assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+            conflicts.incrementAndGet();
+        }
+    }
+
+    private static Map<Long, Integer> quantities(Long firstId, int firstQuantity, Long secondId, int secondQuantity) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        quantities.put(firstId, firstQuantity);
+        quantities.put(secondId, secondQuantity);
+        return quantities;
+    }
+
+    private static List<Throwable> runConcurrently(Runnable attempt) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < ATTEMPTS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    attempt.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            List<Throwable> unexpected = new ArrayList<>();
+            for (Future<?> future : futures) {
+                try {
+                    future.get(30, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    unexpected.add(e.getCause());
+                }
+            }
+            return unexpected;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
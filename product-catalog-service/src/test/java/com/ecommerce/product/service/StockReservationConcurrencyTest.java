@@ -0,0 +1,168 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.dto.StockReservationRequestDto;
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.entity.ProductStatus;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.repository.StockReservationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs against real MySQL row locks; each reserve() commits on its own, so the test itself is not transactional
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(StockReservationService.class)
+class StockReservationConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS = 400;
+
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> THREADS);
+    }
+
+    @Autowired
+    private StockReservationService stockReservationService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Test
+    void concurrentSingleUnitReservationsSellExactlyTheInitialStock() throws Exception {
+        int initialStock = 100;
+        Long productId = product(initialStock);
+        long reservationsBefore = stockReservationRepository.count();
+
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Throwable> unexpected = runConcurrently(() -> {
+            try {
+                stockReservationService.reserve(request(productId, 1));
+                reserved.incrementAndGet();
+            } catch (ResponseStatusException e) {
+                assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+                conflicts.incrementAndGet();
+            }
+        });
+
+        assertThat(unexpected).isEmpty();
+        assertThat(reserved.get()).isEqualTo(initialStock);
+        assertThat(conflicts.get()).isEqualTo(ATTEMPTS - initialStock);
+        assertThat(stock(productId)).isZero();
+        assertThat(stockReservationRepository.count() - reservationsBefore).isEqualTo(initialStock);
+    }
+
+    @Test
+    void concurrentMixedQuantitiesNeverOversell() throws Exception {
+        int initialStock = 250;
+        Long productId = product(initialStock);
+
+        AtomicInteger unitsReserved = new AtomicInteger();
+        List<Throwable> unexpected = runConcurrently(() -> {
+            int quantity = ThreadLocalRandom.current().nextInt(1, 4);
+            try {
+                stockReservationService.reserve(request(productId, quantity));
+                unitsReserved.addAndGet(quantity);
+            } catch (ResponseStatusException e) {
+                assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+            }
+        });
+
+        int remaining = stock(productId);
+        assertThat(unexpected).isEmpty();
+        assertThat(remaining).isGreaterThanOrEqualTo(0);
+        assertThat(unitsReserved.get() + remaining).isEqualTo(initialStock);
+    }
+
+    private List<Throwable> runConcurrently(Runnable attempt) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < ATTEMPTS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    attempt.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            List<Throwable> unexpected = new ArrayList<>();
+            for (Future<?> future : futures) {
+                try {
+                    future.get(60, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    unexpected.add(e.getCause());
+                }
+            }
+            return unexpected;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Long product(int stock) {
+        return productRepository.save(Product.builder()
+                .name("Stress product")
+                .price(new BigDecimal("9.99"))
+                .stockQuantity(stock)
+                .sku("STRESS-" + UUID.randomUUID())
+                .status(ProductStatus.ACTIVE)
+                .build()).getId();
+    }
+
+    private int stock(Long productId) {
+        return productRepository.findById(productId).orElseThrow().getStockQuantity();
+    }
+
+    private static StockReservationRequestDto request(Long productId, int quantity) {
+        StockReservationRequestDto.ItemDto item = new StockReservationRequestDto.ItemDto();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+
+        StockReservationRequestDto request = new StockReservationRequestDto();
+        request.setReference("stress-" + UUID.randomUUID());
+        request.setItems(List.of(item));
+        return request;
+    }
+}